@@ -8,6 +8,7 @@ import org.tweetyproject.arg.dung.util.DefaultDungTheoryGenerator;
 import org.tweetyproject.arg.dung.util.DungTheoryGenerationParameters;
 import syntax.Entity;
 import syntax.Input;
+import util.LabelingVerifier;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -80,6 +81,7 @@ public class Main {
          */
 
         String learner_type = args[0];
+        boolean lazy = args.length > 1 && args[1].equals("lazy");
 
         DungTheoryGenerationParameters params = new DungTheoryGenerationParameters();
         params.numberOfArguments = 20;
@@ -104,7 +106,7 @@ public class Main {
             Long[] evaluationData = new Long[6];
 
             long setup_start = System.nanoTime();
-            Entity entity = new Entity(theory);
+            Entity entity = new Entity(theory, lazy);
             long setup_end = System.nanoTime();
 
             AFLearner learner = null;
@@ -112,6 +114,9 @@ public class Main {
                 case "simple" -> learner = new SimpleAFLearner(entity.getArguments());
                 case "para" -> learner = new ParallelAFLearner(entity.getArguments());
                 case "opti" -> learner = new OptimizedParallelAFLearner(entity.getArguments());
+                case "simple_bitset" -> learner = new SimpleAFLearner(entity.getArguments(), true);
+                case "para_bitset" -> learner = new ParallelAFLearner(entity.getArguments(), true);
+                case "opti_bitset" -> learner = new OptimizedParallelAFLearner(entity.getArguments(), true);
             }
 
             Collection<Input> inputs = new ArrayList<>();
@@ -170,8 +175,9 @@ public class Main {
             System.out.println("done");
 
             System.out.print("Verifying...");
-            if (!entity.verifyFramework(learned_theory, inputs)) {
-                System.out.println("ERROR!");
+            LabelingVerifier.Violation violation = new LabelingVerifier(learned_theory).findViolation(inputs);
+            if (violation != null) {
+                System.out.println("ERROR! " + violation);
             } else {
                 System.out.println("done.");
             }
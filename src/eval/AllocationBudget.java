@@ -0,0 +1,225 @@
+package eval;
+
+import learning.AFLearner;
+import learning.OptimizedParallelAFLearner;
+import learning.ParallelAFLearner;
+import learning.SimpleAFLearner;
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import syntax.ArgumentIndex;
+import syntax.ConstraintTemplates;
+import syntax.Input;
+import util.WorkerGroup;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Check of the memory allocated per learned labeling, on all threads, once the learners are warmed up
+ * The learners update their acceptance conditions in place, so a labeling whose statuses and templates have been
+ * computed may only allocate memory if it adds new clauses. The check covers the labelings that were already learned,
+ * fresh copies of them and fresh labelings that only forbid attackers, i.e. that change the conditions without growing
+ * them, the budget for all of them is zero bytes. The statuses and templates of each labeling are computed before
+ * measuring, since they are allocated once per labeling and not by the learning itself. The labelings cover all
+ * supported semantics and statuses. The bytes are measured with the allocation counters of the ThreadMXBean, summed
+ * over all threads, and the common worker group is started with several threads, so that the parallel path is measured
+ * on any machine.
+ * check() throws an AssertionError if some budget is exceeded, so main exits with a non-zero status and can be used
+ * as a step of the build.
+ *
+ * @author Lars Bengel
+ */
+public class AllocationBudget {
+
+    /** number of threads of the common worker group, unless it is set explicitly */
+    private static final int PARALLELISM = 4;
+
+    /** the semantics of the labelings */
+    private static final Semantics[] SEMANTICS = {Semantics.CF, Semantics.ADM, Semantics.CO, Semantics.ST};
+
+    public static void main(String[] args) {
+        check();
+        System.out.println("All learners are within their allocation budget");
+    }
+
+    /**
+     * measure the memory allocated by all learners for labelings that were already learned, for fresh copies of them
+     * and for fresh labelings that only forbid attackers
+     * @throws AssertionError if some learner allocates any memory
+     */
+    public static void check() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("Allocation counters are not supported by this JVM");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        if (System.getProperty(WorkerGroup.PARALLELISM) == null) {
+            System.setProperty(WorkerGroup.PARALLELISM, String.valueOf(PARALLELISM));
+        }
+
+        Map<String, Function<Collection<Argument>, AFLearner>> learners = new LinkedHashMap<>();
+        learners.put("Simple", SimpleAFLearner::new);
+        learners.put("Parallel", ParallelAFLearner::new);
+        learners.put("OptimizedParallel", OptimizedParallelAFLearner::new);
+
+        List<String> failures = new ArrayList<>();
+        for (int numberOfArguments: new int[]{200, 2000}) {
+            Random random = new Random(132);
+            List<Argument> arguments = new ArrayList<>();
+            for (int i = 0; i < numberOfArguments; i++) {
+                arguments.add(new Argument("a" + i));
+            }
+            for (Map.Entry<String, Function<Collection<Argument>, AFLearner>> entry: learners.entrySet()) {
+                // warm up the learning path of this learner
+                for (int r = 0; r < 5; r++) {
+                    AFLearner learner = entry.getValue().apply(arguments);
+                    learnAll(learner, randomLabelings(arguments, random, 10, false));
+                    learnAll(learner, randomLabelings(arguments, random, 10, true));
+                }
+
+                // labelings of all semantics and statuses, once they have been learned they are implied
+                AFLearner learner = entry.getValue().apply(arguments);
+                List<Input> labelings = randomLabelings(arguments, random, 10, true);
+                learnAll(learner, labelings);
+                // the totals are checked, so that not even a few bytes are hidden by an average
+                long learned = measure(threads, learner, labelings);
+
+                // fresh copies of the same labelings are implied as well
+                List<Input> copies = copy(labelings);
+                prepare(learner, copies);
+                long fresh = measure(threads, learner, copies);
+
+                // fresh labelings that only forbid attackers, the conditions change but do not grow
+                learner = entry.getValue().apply(arguments);
+                learnAll(learner, randomLabelings(arguments, random, 10, false));
+                List<Input> forbiddingLabelings = randomLabelings(arguments, random, 10, false);
+                prepare(learner, forbiddingLabelings);
+                long forbidding = measure(threads, learner, forbiddingLabelings);
+
+                System.out.printf("%s, %d arguments: %d bytes for all learned labelings, %d bytes for all fresh copies, %d bytes for all fresh forbidding labelings (budget 0)%n",
+                        entry.getKey(), numberOfArguments, learned, fresh, forbidding);
+                if (learned > 0) {
+                    failures.add(String.format("%s, %d arguments: %d bytes for all learned labelings", entry.getKey(), numberOfArguments, learned));
+                }
+                if (fresh > 0) {
+                    failures.add(String.format("%s, %d arguments: %d bytes for all fresh copies", entry.getKey(), numberOfArguments, fresh));
+                }
+                if (forbidding > 0) {
+                    failures.add(String.format("%s, %d arguments: %d bytes for all fresh forbidding labelings", entry.getKey(), numberOfArguments, forbidding));
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Allocation budget exceeded: " + String.join("; ", failures));
+        }
+    }
+
+    /**
+     * compute the statuses of the given labelings wrt. the index of the learner and the templates for each status
+     * that occurs in them, so that measuring only covers the learning itself
+     * @param learner some learner
+     * @param labelings some labelings
+     */
+    private static void prepare(AFLearner learner, List<Input> labelings) {
+        ArgumentIndex index = learner.getIndex();
+        for (Input labeling: labelings) {
+            labeling.getStatuses(index);
+            ConstraintTemplates templates = labeling.getTemplates(index);
+            for (ArgumentStatus status: ArgumentStatus.values()) {
+                if (labeling.getIdsOfStatus(status, index).length > 0) {
+                    templates.getForbidden(labeling.getSemantics(), status);
+                    templates.getRequired(labeling.getSemantics(), status);
+                }
+            }
+        }
+    }
+
+    /**
+     * learn the given labelings and measure the memory allocated on all threads
+     * @param threads the thread bean
+     * @param learner some learner
+     * @param labelings some labelings
+     * @return the number of bytes allocated for all labelings
+     */
+    private static long measure(com.sun.management.ThreadMXBean threads, AFLearner learner, List<Input> labelings) {
+        long[] ids = threads.getAllThreadIds();
+        long[] before = new long[ids.length];
+        long[] after = new long[ids.length];
+        // the counters are read without allocating, so nothing but the learning is measured
+        for (int i = 0; i < ids.length; i++) {
+            before[i] = threads.getThreadAllocatedBytes(ids[i]);
+        }
+        for (int i = 0; i < labelings.size(); i++) {
+            learner.learnLabeling(labelings.get(i));
+        }
+        for (int i = 0; i < ids.length; i++) {
+            after[i] = threads.getThreadAllocatedBytes(ids[i]);
+        }
+        long bytes = 0;
+        for (int i = 0; i < ids.length; i++) {
+            // threads that have terminated in the meantime report -1
+            if (before[i] >= 0 && after[i] >= 0) {
+                bytes += after[i] - before[i];
+            }
+        }
+        return bytes;
+    }
+
+    private static void learnAll(AFLearner learner, List<Input> labelings) {
+        for (Input labeling: labelings) {
+            learner.learnLabeling(labeling);
+        }
+    }
+
+    /**
+     * @param labelings some labelings
+     * @return new labelings with the same statuses and semantics, nothing is computed for them yet
+     */
+    private static List<Input> copy(List<Input> labelings) {
+        List<Input> copies = new ArrayList<>();
+        for (Input labeling: labelings) {
+            Input copy = new Input();
+            copy.putAll(labeling);
+            copy.setSemantics(labeling.getSemantics());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * create random labelings, the labelings need not be produced by any framework
+     * @param arguments the set of all arguments
+     * @param random some random generator
+     * @param number the number of labelings per semantics
+     * @param all if true, the labelings contain all statuses and are given for all semantics, otherwise they are
+     * conflict-free or admissible and only contain IN and UNDECIDED arguments, so they only forbid attackers
+     * @return the labelings
+     */
+    private static List<Input> randomLabelings(List<Argument> arguments, Random random, int number, boolean all) {
+        List<Input> labelings = new ArrayList<>();
+        for (Semantics semantics: SEMANTICS) {
+            if (!all && semantics != Semantics.CF && semantics != Semantics.ADM) {
+                continue;
+            }
+            for (int i = 0; i < number; i++) {
+                Input labeling = new Input();
+                for (Argument a: arguments) {
+                    double p = random.nextDouble();
+                    if (p < 0.05) {
+                        labeling.put(a, ArgumentStatus.IN);
+                    } else if (semantics == Semantics.ST || all && p < 0.5) {
+                        // stable labelings have no UNDECIDED arguments
+                        labeling.put(a, ArgumentStatus.OUT);
+                    } else {
+                        labeling.put(a, ArgumentStatus.UNDECIDED);
+                    }
+                }
+                labeling.setSemantics(semantics);
+                labelings.add(labeling);
+            }
+        }
+        return labelings;
+    }
+}
@@ -0,0 +1,109 @@
+package eval;
+
+import util.BitKernels;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the word-parallel kernels of BitKernels against their scalar versions
+ * For frameworks with the given number of arguments, random labelings are simulated by random sets of IN and
+ * UNDECIDED arguments. The kernels are applied to these sets in the way the bitset constraint path of the learners
+ * uses them, i.e. forbidding attackers and checking clauses for disjointness and subsets. The checks are chosen such
+ * that they never exit early, so each operation scans all words.
+ *
+ * @author Lars Bengel
+ */
+public class BenchmarkBitKernels {
+    public static void main(String[] args) {
+        // number of arguments, number of labelings and share of IN arguments in each labeling
+        int numberOfArguments = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int numberOfLabelings = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        double density = 0.05;
+        int runs = 10;
+
+        Random random = new Random(132);
+        int words = (numberOfArguments + 63) >>> 6;
+        long[][] in = new long[numberOfLabelings][];
+        long[][] undecided = new long[numberOfLabelings][];
+        long[][] inAndUndecided = new long[numberOfLabelings][];
+        for (int i = 0; i < numberOfLabelings; i++) {
+            in[i] = randomWords(random, numberOfArguments, words, density);
+            undecided[i] = randomWords(random, numberOfArguments, words, density);
+            BitKernels.andNot(undecided[i], in[i]);
+            inAndUndecided[i] = in[i].clone();
+            BitKernels.or(inAndUndecided[i], undecided[i]);
+        }
+
+        System.out.println("Arguments: " + numberOfArguments + ", labelings: " + numberOfLabelings);
+        System.out.println("kernel\tword ns/op\tscalar ns/op\tspeedup");
+        for (String kernel: new String[]{"or", "intersects", "intersectsComplement", "cardinalityAndNot"}) {
+            // warm up both versions before measuring
+            long checksum = run(kernel, false, in, undecided, inAndUndecided, words) + run(kernel, true, in, undecided, inAndUndecided, words);
+            long wordTime = Long.MAX_VALUE;
+            long scalarTime = Long.MAX_VALUE;
+            for (int r = 0; r < runs; r++) {
+                long start = System.nanoTime();
+                checksum += run(kernel, false, in, undecided, inAndUndecided, words);
+                wordTime = Math.min(wordTime, System.nanoTime() - start);
+                start = System.nanoTime();
+                checksum += run(kernel, true, in, undecided, inAndUndecided, words);
+                scalarTime = Math.min(scalarTime, System.nanoTime() - start);
+            }
+            double wordNs = (double) wordTime / numberOfLabelings;
+            double scalarNs = (double) scalarTime / numberOfLabelings;
+            System.out.printf("%s\t%.1f\t%.1f\t%.1fx\t(checksum %d)%n", kernel, wordNs, scalarNs, scalarNs / wordNs, checksum);
+        }
+    }
+
+    /**
+     * apply the given kernel once per labeling
+     * @param kernel name of the kernel
+     * @param scalar if true, the scalar version is used
+     * @param in the IN arguments of each labeling
+     * @param undecided the UNDECIDED arguments of each labeling
+     * @param inAndUndecided the IN and UNDECIDED arguments of each labeling
+     * @param words number of words of each set
+     * @return a checksum of the results, so that the work can not be eliminated
+     */
+    private static long run(String kernel, boolean scalar, long[][] in, long[][] undecided, long[][] inAndUndecided, int words) {
+        long[] forbidden = new long[words];
+        long checksum = 0;
+        for (int i = 0; i < in.length; i++) {
+            switch (kernel) {
+                case "or":
+                    if (scalar) {
+                        BitKernels.Scalar.or(forbidden, inAndUndecided[i]);
+                    } else {
+                        BitKernels.or(forbidden, inAndUndecided[i]);
+                    }
+                    break;
+                case "intersects":
+                    // IN and UNDECIDED are disjoint
+                    boolean intersects = scalar ? BitKernels.Scalar.intersects(in[i], undecided[i]) : BitKernels.intersects(in[i], undecided[i]);
+                    checksum += intersects ? 1 : 0;
+                    break;
+                case "intersectsComplement":
+                    // IN is a subset of IN and UNDECIDED
+                    boolean allowed = scalar ? BitKernels.Scalar.intersectsComplement(in[i], inAndUndecided[i]) : BitKernels.intersectsComplement(in[i], inAndUndecided[i]);
+                    checksum += allowed ? 1 : 0;
+                    break;
+                case "cardinalityAndNot":
+                    checksum += scalar ? BitKernels.Scalar.cardinalityAndNot(inAndUndecided[i], in[i]) : BitKernels.cardinalityAndNot(inAndUndecided[i], in[i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown kernel: " + kernel);
+            }
+        }
+        return checksum + (scalar ? BitKernels.Scalar.cardinality(forbidden) : BitKernels.cardinality(forbidden));
+    }
+
+    private static long[] randomWords(Random random, int n, int words, double density) {
+        long[] result = new long[words];
+        for (int i = 0; i < n; i++) {
+            if (random.nextDouble() < density) {
+                result[i >>> 6] |= 1L << i;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package eval;
+
+import learning.AFLearner;
+import learning.LazyAFLearner;
+import learning.SimpleAFLearner;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.Input;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the lazy learner against the eager one for sessions that learn many labelings and query once
+ * Both learners learn the same random admissible labelings, see EvaluationConstraintStore, and are then queried for a
+ * single framework. The time for learning and for the query are reported separately, and the frameworks are compared.
+ *
+ * @author Lars Bengel
+ */
+public class BenchmarkLazyLearner {
+    public static void main(String[] args) {
+        // number of arguments and number of labelings
+        int numberOfArguments = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int numberOfLabelings = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        List<Argument> arguments = new ArrayList<>();
+        for (int i = 0; i < numberOfArguments; i++) {
+            arguments.add(new Argument("a" + i));
+        }
+        List<Input> labelings = EvaluationConstraintStore.randomLabelings(arguments, new Random(132), numberOfLabelings);
+
+        System.out.println("Arguments: " + numberOfArguments + ", labelings: " + numberOfLabelings);
+        System.out.println("learner\tlearn (ms)\tquery (ms)\ttotal (ms)");
+        // warm up both learners before measuring
+        run(null, new SimpleAFLearner(arguments), labelings);
+        run(null, new LazyAFLearner(arguments), labelings);
+        DungTheory eager = run("eager", new SimpleAFLearner(arguments), labelings);
+        DungTheory lazy = run("lazy", new LazyAFLearner(arguments), labelings);
+        if (!eager.equals(lazy)) {
+            throw new IllegalStateException("Learners disagree on the framework");
+        }
+    }
+
+    /**
+     * learn the given labelings with the given learner, then query a single framework
+     * @param name name of the learner, nothing is printed if null
+     * @param learner some learner
+     * @param labelings some labelings
+     * @return the framework
+     */
+    private static DungTheory run(String name, AFLearner learner, List<Input> labelings) {
+        long start = System.nanoTime();
+        for (Input labeling: labelings) {
+            learner.learnLabeling(labeling);
+        }
+        long learned = System.nanoTime();
+        DungTheory model = learner.getModel();
+        long queried = System.nanoTime();
+        if (name != null) {
+            System.out.printf("%s\t%d\t%d\t%d%n", name, (learned - start) / 1000000, (queried - learned) / 1000000, (queried - start) / 1000000);
+        }
+        return model;
+    }
+}
@@ -46,10 +46,10 @@ public class EvaluationAdCoSt {
             long setup_start = System.nanoTime();
             DungTheory theory = theoryGenerator.next();
 
-            Long[] evaluationData = new Long[5];
+            Long[] evaluationData = new Long[6];
 
 
-            Entity entity = new Entity(theory);
+            Entity entity = new Entity(theory, List.of(Semantics.ADM, Semantics.CO, Semantics.ST));
 
             // set up learning instance and get all st, co and adm inputs
             SimpleAFLearner learner = new SimpleAFLearner(entity.getArguments());
@@ -85,6 +85,7 @@ public class EvaluationAdCoSt {
 
             // Logging
             evaluationData[2] = learning_time;
+            evaluationData[5] = learner.getNumberOfSkippedLabelings();
 
             // Construct all AFs, only if there are less than 1000
             System.out.print("Constructing...");
@@ -109,7 +110,7 @@ public class EvaluationAdCoSt {
             }
 
              */
-            System.out.println(learner.getNumberOfFrameworks());
+            System.out.println(learner.getExactNumberOfFrameworks());
             System.out.println(theory.prettyPrint());
             System.out.println(new SimpleAdmissibleReasoner().getModels(theory));
             System.out.println(new SimpleCompleteReasoner().getModels(theory));
@@ -0,0 +1,143 @@
+package eval;
+
+import learning.AFLearner;
+import learning.SimpleAFLearner;
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.Input;
+import util.ConstraintStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Evaluation of learning with the acceptance conditions kept outside of the heap
+ * Random labelings of a large set of arguments are learned once with the conditions on the heap and once with the
+ * conditions in a constraint store, either in direct buffers or, if a directory is given, in memory-mapped files. For
+ * both the learning time and the heap in use afterwards are reported, and the learned witness frameworks are compared.
+ * The labelings need not be produced by any framework.
+ *
+ * @author Lars Bengel
+ */
+public class EvaluationConstraintStore {
+    public static void main(String[] args) throws Exception {
+        // number of arguments, number of labelings and optionally a directory for the memory-mapped files
+        int numberOfArguments = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int numberOfLabelings = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Path directory = args.length > 2 ? Paths.get(args[2]) : null;
+
+        List<Argument> arguments = new ArrayList<>();
+        for (int i = 0; i < numberOfArguments; i++) {
+            arguments.add(new Argument("a" + i));
+        }
+        List<Input> labelings = randomLabelings(arguments, new Random(132), numberOfLabelings);
+
+        System.out.println("Arguments: " + numberOfArguments + ", labelings: " + numberOfLabelings);
+        System.out.println("learner\ttime (ms)\theap (MB)\tattacks");
+        DungTheory heapModel = run("heap", new SimpleAFLearner(arguments), labelings);
+
+        ConstraintStore store;
+        if (directory == null) {
+            store = ConstraintStore.offHeap(numberOfArguments);
+        } else {
+            store = ConstraintStore.mapped(numberOfArguments, Files.createDirectories(directory));
+        }
+        DungTheory storeModel = run(directory == null ? "off-heap" : "mapped", new SimpleAFLearner(arguments, store), labelings);
+        System.out.println("Store: " + (4 * store.getSize() >> 20) + " MB, free: " + (4 * store.getFreeSize() >> 20) + " MB");
+
+        if (!heapModel.equals(storeModel)) {
+            throw new IllegalStateException("Learners disagree on the witness framework");
+        }
+    }
+
+    /**
+     * learn the given labelings with the given learner and print the time and the heap in use afterwards
+     * @param name name of the learner
+     * @param learner some learner
+     * @param labelings some labelings
+     * @return the witness framework after learning
+     */
+    private static DungTheory run(String name, AFLearner learner, List<Input> labelings) {
+        long start = System.nanoTime();
+        for (Input labeling: labelings) {
+            learner.learnLabeling(labeling);
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        DungTheory model = learner.getModel();
+        System.out.printf("%s\t%d\t%d\t%d%n", name, time, heap, model.getAttacks().size());
+        return model;
+    }
+
+    /**
+     * create random admissible labelings of a hidden random framework, each argument has five attackers on average
+     * a random set of arguments is shrunk until it is conflict-free and defends all of its members
+     * @param arguments the set of all arguments
+     * @param random some random generator
+     * @param number the number of labelings
+     * @return the labelings
+     */
+    static List<Input> randomLabelings(List<Argument> arguments, Random random, int number) {
+        int n = arguments.size();
+        List<List<Integer>> attackers = new ArrayList<>();
+        for (int a = 0; a < n; a++) {
+            attackers.add(new ArrayList<>());
+        }
+        for (int i = 0; i < 5 * n; i++) {
+            attackers.get(random.nextInt(n)).add(random.nextInt(n));
+        }
+
+        List<Input> labelings = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            boolean[] in = new boolean[n];
+            for (int a = 0; a < n; a++) {
+                in[a] = random.nextDouble() < 0.05;
+            }
+            boolean[] out = new boolean[n];
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                Arrays.fill(out, false);
+                for (int a = 0; a < n; a++) {
+                    for (int b: attackers.get(a)) {
+                        if (in[b]) {
+                            out[a] = true;
+                        }
+                    }
+                }
+                for (int a = 0; a < n; a++) {
+                    if (!in[a]) {
+                        continue;
+                    }
+                    // drop members that are in conflict or not defended
+                    for (int b: attackers.get(a)) {
+                        if (in[b] || !out[b]) {
+                            in[a] = false;
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            Input labeling = new Input();
+            for (int a = 0; a < n; a++) {
+                if (in[a]) {
+                    labeling.put(arguments.get(a), ArgumentStatus.IN);
+                } else if (out[a]) {
+                    labeling.put(arguments.get(a), ArgumentStatus.OUT);
+                } else {
+                    labeling.put(arguments.get(a), ArgumentStatus.UNDECIDED);
+                }
+            }
+            labeling.setSemantics(Semantics.ADM);
+            labelings.add(labeling);
+        }
+        return labelings;
+    }
+}
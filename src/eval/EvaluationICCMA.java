@@ -5,13 +5,12 @@ import learning.OptimizedParallelAFLearner;
 import learning.ParallelAFLearner;
 import org.tweetyproject.arg.dung.parser.AbstractDungParser;
 import org.tweetyproject.arg.dung.parser.ApxParser;
-import org.tweetyproject.arg.dung.semantics.Extension;
 import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
 import learning.AFLearner;
 import learning.SimpleAFLearner;
-import syntax.Input;
+import syntax.LabelingMatrix;
 
 import java.io.File;
 import java.io.IOException;
@@ -62,33 +61,31 @@ public class EvaluationICCMA {
             //    continue;
             //}
 
-            List<Input> inputs = new LinkedList<>();
+            // collect all labelings, they are packed into a matrix, so the number of labelings is not capped
+            List<Collection<Argument>> extensions = new ArrayList<>();
+            List<Semantics> semantics = new ArrayList<>();
             for (Collection<Argument> ext: exts_co) {
-                Input input = new Input(theory, new Extension(ext), Semantics.CO);
-                inputs.add(input);
+                extensions.add(ext);
+                semantics.add(Semantics.CO);
             }
             for (Collection<Argument> ext: exts_st) {
-                Input input = new Input(theory, new Extension(ext), Semantics.ST);
-                inputs.add(input);
+                extensions.add(ext);
+                semantics.add(Semantics.ST);
             }
             for (Collection<Argument> ext: exts_adm) {
-                if (inputs.size() >= 1000) {
-                    break;
-                }
-                Input input = new Input(theory, new Extension(ext), Semantics.ADM);
-                inputs.add(input);
+                extensions.add(ext);
+                semantics.add(Semantics.ADM);
             }
 
             // randomize order of labelings
-            Collection<Input> examplesLearn = new ArrayList<>();
-            while (examplesLearn.size() < 1000) {
-                try {
-                    Random rnd = new Random();
-                    int id = rnd.nextInt(inputs.size());
-                    examplesLearn.add(inputs.remove(id));
-                } catch (IllegalArgumentException e) {
-                    break;
-                }
+            List<Integer> order = new ArrayList<>();
+            for (int j = 0; j < extensions.size(); j++) {
+                order.add(j);
+            }
+            Collections.shuffle(order);
+            LabelingMatrix examplesLearn = new LabelingMatrix(theory);
+            for (int j: order) {
+                examplesLearn.add(theory, extensions.get(j), semantics.get(j));
             }
 
             AFLearner learner = null;
@@ -96,11 +93,14 @@ public class EvaluationICCMA {
                 case "simple" -> learner = new SimpleAFLearner(theory);
                 case "para" -> learner = new ParallelAFLearner(theory);
                 case "opti" -> learner = new OptimizedParallelAFLearner(theory);
+                case "simple_bitset" -> learner = new SimpleAFLearner(theory, true);
+                case "para_bitset" -> learner = new ParallelAFLearner(theory, true);
+                case "opti_bitset" -> learner = new OptimizedParallelAFLearner(theory, true);
             }
             long setup_end = System.nanoTime();
             System.out.println("done");
 
-            Long[] evaluationData = new Long[6];
+            Long[] evaluationData = new Long[7];
 
             System.out.println(path);
 
@@ -111,12 +111,9 @@ public class EvaluationICCMA {
 
             // Learn co labelings
             System.out.print("Learning...");
-            int num_learned = 0;
+            int num_learned = examplesLearn.size();
             long learning_start = System.nanoTime();
-            for (Input input : examplesLearn) {
-                learner.learnLabeling(input);
-                num_learned++;
-            }
+            learner.learnLabelings(examplesLearn);
             long learning_end = System.nanoTime();
             System.out.println("done");
 
@@ -132,6 +129,7 @@ public class EvaluationICCMA {
             evaluationData[3] = (long) num_learned;
             evaluationData[4] = learning_end - learning_start;;
             evaluationData[5] = constructing_end - constructing_start;
+            evaluationData[6] = learner.getNumberOfSkippedLabelings();
 
             // Write performance data to file
             String evaluation_string = path + "," + Arrays.stream(evaluationData).map(String::valueOf).collect(Collectors.joining(",")) + "\n";
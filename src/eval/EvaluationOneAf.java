@@ -45,7 +45,7 @@ public class EvaluationOneAf {
             long setup_start = System.nanoTime();
             DungTheory theory = theoryGenerator.next();
 
-            Long[] evaluationData = new Long[5];
+            Long[] evaluationData = new Long[6];
 
 
             Entity entity = new Entity(theory);
@@ -81,7 +81,7 @@ public class EvaluationOneAf {
                 boolean result = learner.learnLabeling(input);
                 num_learned++;
 
-                if (learner.getNumberOfFrameworks(true) == 1) {
+                if (learner.isIdentified()) {
                     break;
                 }
             }
@@ -93,6 +93,7 @@ public class EvaluationOneAf {
             long num_afs_learned = learner.getNumberOfFrameworks();
             evaluationData[2] = learning_time;
             evaluationData[4] = (long) num_learned;
+            evaluationData[5] = learner.getNumberOfSkippedLabelings();
 
             // Construct all AFs, only if there are less than 1000
             System.out.print("Constructing...");
@@ -2,9 +2,13 @@
 package learning;
 
 import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
 import syntax.Input;
+import syntax.LabelingMatrix;
 
+import java.math.BigInteger;
 import java.util.Collection;
+import java.util.stream.Stream;
 
 /**
  * Interface for the learning algorithm
@@ -14,23 +18,68 @@ import java.util.Collection;
 public interface AFLearner {
     /**
      * learn a single input labeling and store in internal acceptance conditions
+     * arguments whose acceptance condition already implies the new constraint are skipped
      * @param labeling some input labeling
      * @return true if the labeling has been processed successfully
      */
     boolean learnLabeling(Input labeling);
 
+    /**
+     * learn a collection of input labelings at once, the result is the same as learning them one after another
+     * @param labelings some input labelings
+     * @return true if the labelings have been processed successfully
+     */
+    boolean learnLabelings(Collection<Input> labelings);
+
+    /**
+     * learn all labelings of the given matrix, the labelings are only created while they are learned
+     * @param labelings some input labelings
+     * @return true if the labelings have been processed successfully
+     */
+    boolean learnLabelings(LabelingMatrix labelings);
+
+    /**
+     * @return the number of learned labelings that were skipped, since they were implied by the internal acceptance conditions
+     */
+    long getNumberOfSkippedLabelings();
+
+    /**
+     * @return the index of all arguments, the statuses of a labeling are only computed once wrt. this index
+     */
+    ArgumentIndex getIndex();
+
     /**
      * compute all argumentation frameworks that satisfy the internal acceptance conditions
      * @return the set of computed argumentation frameworks
      */
     Collection<DungTheory> getModels();
 
+    /**
+     * enumerate all argumentation frameworks that satisfy the internal acceptance conditions lazily
+     * the frameworks are only constructed when requested, the stream is sequential and callers that want to process it
+     * in parallel must call parallel() on it
+     * @return a stream of all argumentation frameworks that satisfy the internal conditions
+     */
+    Stream<DungTheory> streamModels();
+
     /**
      * compute an argumentation framework that satisfy the internal acceptance conditions
      * @return some argumentation framework that satisfies the internal conditions
      */
     DungTheory getModel();
 
+    /**
+     * compute an argumentation framework with as few attacks as possible that satisfies the internal acceptance conditions
+     * @return some argumentation framework with a minimum number of attacks that satisfies the internal conditions
+     */
+    DungTheory getMinimalModel();
+
+    /**
+     * compute the argumentation framework with as many attacks as possible that satisfies the internal acceptance conditions
+     * @return the argumentation framework with a maximum number of attacks that satisfies the internal conditions
+     */
+    DungTheory getMaximalModel();
+
     /**
      * print the internal acceptance conditions
      */
@@ -38,8 +87,29 @@ public interface AFLearner {
 
     /**
      * compute the number of argumentation frameworks that satisfy the internal acceptance conditions
+     * the result is capped at Long.MAX_VALUE, see getExactNumberOfFrameworks
      * @return number of afs that produce all processed input labelings
      */
     long getNumberOfFrameworks();
     long getNumberOfFrameworks(boolean shortcut);
+
+    /**
+     * check whether exactly one argumentation framework satisfies the internal acceptance conditions
+     * this is tracked while learning, so the check takes constant time
+     * @return true if the processed input labelings identify a unique af
+     */
+    boolean isIdentified();
+
+    /**
+     * compute the exact number of argumentation frameworks that satisfy the internal acceptance conditions
+     * @return number of afs that produce all processed input labelings
+     */
+    BigInteger getExactNumberOfFrameworks();
+
+    /**
+     * compute the binary logarithm of the number of argumentation frameworks that satisfy the internal acceptance conditions
+     * cheaper than the exact number, since the large product over all arguments is replaced by a sum
+     * @return log2 of the number of afs that produce all processed input labelings
+     */
+    double getLog2NumberOfFrameworks();
 }
@@ -0,0 +1,188 @@
+package learning;
+
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.Attack;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
+import syntax.AttackConstraint;
+import util.FrameworkSpliterator;
+import util.IdentificationTracker;
+import util.ModelComputation;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Common part of the learners that keep one attack constraint per argument
+ * The learners only differ in the representation of the constraints and in how they learn labelings, all queries
+ * about the learned frameworks only use the AttackConstraint interface and are thus answered here.
+ *
+ * @author Lars Bengel
+ */
+public abstract class AbstractAFLearner implements AFLearner {
+
+    /* the set of all arguments */
+    protected Collection<Argument> args;
+    /* maps each argument to its id, all internal structures are indexed by these ids */
+    protected ArgumentIndex index;
+    /* structure for storing the acceptance condition of each argument, by id */
+    protected AttackConstraint<?>[] conditions;
+    /* keeps track of the arguments whose attackers are uniquely determined */
+    protected IdentificationTracker tracker;
+    /* number of labelings that did not change any acceptance condition */
+    protected long skippedLabelings;
+
+    /**
+     * initialize the Learner with a set of arguments
+     * @param args a set of arguments
+     * @param constraint creates the empty constraint of an argument wrt. the index of this learner
+     */
+    protected AbstractAFLearner(Collection<Argument> args, BiFunction<Argument, ArgumentIndex, AttackConstraint<?>> constraint) {
+        this.args = args;
+        this.index = new ArgumentIndex(args);
+        this.conditions = new AttackConstraint<?>[this.index.size()];
+        for (int id = 0; id < this.index.size(); id++) {
+            this.conditions[id] = constraint.apply(this.index.getArgument(id), this.index);
+        }
+        this.tracker = new IdentificationTracker(this.conditions);
+    }
+
+    public long getNumberOfSkippedLabelings() {
+        return this.skippedLabelings;
+    }
+
+    public ArgumentIndex getIndex() {
+        return this.index;
+    }
+
+    /**
+     * enumerate all frameworks that satisfy all acceptance conditions lazily
+     * the partial attack relations of each argument are enumerated on demand as well, see FrameworkSpliterator. The
+     * stream is sequential, so that stopping early, e.g. with limit, stays cheap, call parallel() on it to process the
+     * frameworks in parallel
+     * @return a stream of all frameworks obtained from learning
+     */
+    public Stream<DungTheory> streamModels() {
+        return StreamSupport.stream(FrameworkSpliterator.of(this.index, id -> this.conditions[id].getForbiddenAttackers(), id -> this.conditions[id].getPositiveClauses()), false);
+    }
+
+    /**
+     * compute a single model that satisfies all attack constraints
+     * the witness of each constraint is computed in linear time, no solver needed
+     * @return a dung theory for which all attack constraints are satisfied
+     */
+    public DungTheory getModel() {
+        return this.getModel(a -> this.conditions[a].getWitness());
+    }
+
+    /**
+     * compute a framework with as few attacks as possible, i.e. for each argument a minimum hitting set of the clauses of
+     * its acceptance condition, computed in parallel for all arguments
+     * @return a dung theory with a minimum number of attacks for which all attack constraints are satisfied
+     */
+    public DungTheory getMinimalModel() {
+        return this.getModel(a -> ModelComputation.getMinimalWitnessOfClauses(this.conditions[a].getForbiddenAttackers(), this.conditions[a].getPositiveClauses()));
+    }
+
+    /**
+     * compute the framework with as many attacks as possible, i.e. every argument is attacked by all arguments not
+     * forbidden by its acceptance condition
+     * @return the dung theory with a maximum number of attacks for which all attack constraints are satisfied
+     */
+    public DungTheory getMaximalModel() {
+        return this.getModel(a -> ModelComputation.getMaximalWitnessOfClauses(this.conditions[a].getForbiddenAttackers(), this.conditions[a].getPositiveClauses(), this.index.size()));
+    }
+
+    /**
+     * compute the framework given by a set of attackers for each argument, in parallel for all arguments
+     * @param attackersOf computes the ids of the attackers of the argument with the given id, null if there are none
+     * @return the dung theory with the given attacks
+     */
+    private DungTheory getModel(IntFunction<BitSet> attackersOf) {
+        DungTheory theory = new DungTheory();
+        theory.addAll(this.args);
+        List<Collection<Attack>> partialAttackRelations = new ArrayList<>(Collections.nCopies(this.index.size(), null));
+
+        IntStream.range(0, this.index.size()).parallel().forEach(a -> {
+            BitSet attackers = attackersOf.apply(a);
+            if (attackers == null) {
+                throw new IllegalStateException("No framework satisfies the acceptance condition of " + this.index.getArgument(a));
+            }
+            Collection<Attack> partialAttackRelation = new ArrayList<>();
+            for (int b = attackers.nextSetBit(0); b >= 0; b = attackers.nextSetBit(b + 1)) {
+                partialAttackRelation.add(new Attack(this.index.getArgument(b), this.index.getArgument(a)));
+            }
+            partialAttackRelations.set(a, partialAttackRelation);
+        });
+        for (Collection<Attack> attacks: partialAttackRelations) {
+            theory.addAllAttacks(attacks);
+        }
+        return theory;
+    }
+
+    public void printStatus() {
+        this.printStatus(false);
+    }
+
+    /**
+     * print the current status of the acceptance conditions
+     * @param dnf if true, the acceptance conditions are transformed to DNF before printing, if supported
+     */
+    public abstract void printStatus(boolean dnf);
+
+    public long getNumberOfFrameworks() {
+        return getNumberOfFrameworks(false);
+    }
+
+    /**
+     * compute the number of frameworks that satisfy all acceptance conditions
+     * helpful for break conditions when learning
+     * @param shortcut if true, only return 1, -1 or 0, which the tracker knows in constant time
+     * @return the number of frameworks capped at Long.MAX_VALUE, if shortcut is set 1 if there is only one AF, -1 if
+     * there is more than one and 0 if the conditions are unsatisfiable
+     */
+    public long getNumberOfFrameworks(boolean shortcut) {
+        if (shortcut) {
+            // the tracker knows in constant time whether there is exactly one framework
+            if (this.tracker.isUnsatisfiable()) {
+                return 0;
+            }
+            return this.tracker.isIdentified() ? 1 : -1;
+        }
+        // the exact number may exceed the range of long
+        BigInteger total = this.getExactNumberOfFrameworks();
+        return total.bitLength() < Long.SIZE ? total.longValue() : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return true if exactly one framework satisfies all acceptance conditions
+     */
+    public boolean isIdentified() {
+        return this.tracker.isIdentified();
+    }
+
+    /**
+     * compute the exact number of frameworks, the number of partial attack relations of each argument is counted
+     * directly on the clauses of its acceptance condition, in parallel for all arguments
+     * @return the number of afs that produce all learned labelings
+     */
+    public BigInteger getExactNumberOfFrameworks() {
+        return IntStream.range(0, this.index.size()).parallel()
+                .mapToObj(id -> this.conditions[id].countModels())
+                .reduce(BigInteger.ONE, BigInteger::multiply);
+    }
+
+    /**
+     * @return log2 of the number of afs that produce all learned labelings
+     */
+    public double getLog2NumberOfFrameworks() {
+        return IntStream.range(0, this.index.size()).parallel()
+                .mapToDouble(id -> ModelComputation.log2(this.conditions[id].countModels()))
+                .sum();
+    }
+}
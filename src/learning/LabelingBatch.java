@@ -0,0 +1,97 @@
+package learning;
+
+import syntax.ArgumentIndex;
+import syntax.Input;
+import syntax.LabelingMatrix;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Transposed kernel for learning many labelings at once
+ * Instead of one pass over all arguments per labeling, the arguments are split into blocks and each block consumes
+ * every labeling in one loop, so the statuses and templates of a labeling are reused for the whole block while they are
+ * still in the cache. The constraint of each argument sees the labelings in the given order, thus the result is the same
+ * as learning them one after another. Different blocks are processed in parallel.
+ * Labelings from a labeling matrix are created in chunks, so that a large corpus never exists as labelings at once.
+ *
+ * @author Lars Bengel
+ */
+class LabelingBatch {
+
+    /** the number of arguments per block */
+    static final int BLOCK_SIZE = 64;
+    /** the number of rows of a labeling matrix that are turned into labelings at once */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * learns the constraint of a single argument wrt. a single labeling
+     */
+    interface ConstraintLearner {
+        /**
+         * @param id id of some argument
+         * @param labeling some labeling
+         * @return true if the constraint of the argument has changed, false if it was skipped
+         */
+        boolean learn(int id, Input labeling);
+    }
+
+    /**
+     * learn all given labelings for all arguments of the index
+     * @param index the index of all arguments
+     * @param inputs some labelings
+     * @param parallel if true, the blocks of arguments are processed in parallel
+     * @param learner learns the constraint of an argument wrt. a labeling, called concurrently for different blocks
+     * @return the number of labelings that did not change the constraint of any argument
+     */
+    static int learn(ArgumentIndex index, Collection<Input> inputs, boolean parallel, ConstraintLearner learner) {
+        List<Input> labelings = new ArrayList<>(inputs);
+        // compute the statuses and status partitions by id once, before the parallel part
+        for (Input labeling: labelings) {
+            labeling.getStatuses(index);
+        }
+        int n = index.size();
+        IntStream blocks = IntStream.range(0, (n + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (parallel) {
+            blocks = blocks.parallel();
+        }
+        BitSet changed = blocks.mapToObj(block -> {
+            BitSet changedInBlock = new BitSet(labelings.size());
+            int end = Math.min(n, (block + 1) * BLOCK_SIZE);
+            for (int i = 0; i < labelings.size(); i++) {
+                Input labeling = labelings.get(i);
+                for (int id = block * BLOCK_SIZE; id < end; id++) {
+                    if (learner.learn(id, labeling)) {
+                        changedInBlock.set(i);
+                    }
+                }
+            }
+            return changedInBlock;
+        }).reduce(new BitSet(labelings.size()), (a, b) -> {
+            BitSet union = (BitSet) a.clone();
+            union.or(b);
+            return union;
+        });
+        return labelings.size() - changed.cardinality();
+    }
+
+    /**
+     * learn all labelings of the given matrix for all arguments of the index
+     * the labelings are created chunk by chunk and dropped after learning, so only a few of them exist at any time
+     * @param index the index of all arguments
+     * @param matrix some labelings
+     * @param parallel if true, the blocks of arguments are processed in parallel
+     * @param learner learns the constraint of an argument wrt. a labeling, called concurrently for different blocks
+     * @return the number of labelings that did not change the constraint of any argument
+     */
+    static int learn(ArgumentIndex index, LabelingMatrix matrix, boolean parallel, ConstraintLearner learner) {
+        int skipped = 0;
+        for (int from = 0; from < matrix.size(); from += CHUNK_SIZE) {
+            skipped += learn(index, matrix.getInputs(from, Math.min(matrix.size(), from + CHUNK_SIZE), index), parallel, learner);
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,240 @@
+package learning;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.Attack;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import org.tweetyproject.logics.pl.syntax.AssociativePlFormula;
+import syntax.ConstraintTemplates;
+import syntax.Input;
+import syntax.LabelingMatrix;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Learner that only derives the acceptance conditions when they are queried
+ * Learning a labeling just appends it to a labeling matrix, i.e. 2 bits per argument. When the learner is queried, the
+ * condition of each argument is brought up to date with the labelings it has not seen yet, via the same constraints as
+ * for SimpleAFLearner. Queries about the whole framework do this for all arguments in parallel, queries about a single
+ * argument only for that argument. Each condition sees the labelings in the order they were learned, so the result is
+ * the same as for learning them eagerly. The constraints are derived from the packed statuses and the templates of each
+ * row, so the stored labelings are never turned back into Input labelings.
+ * Invalid labelings, e.g. stable labelings with undecided arguments, are only rejected once they are derived.
+ * Storing and deriving are synchronized on the learner, so labelings may be learned while it is queried.
+ *
+ * @author Lars Bengel
+ */
+public class LazyAFLearner extends SimpleAFLearner {
+
+    /* all learned labelings, by row in the order they were learned */
+    private final LabelingMatrix labelings;
+    /* the number of labelings the condition of each argument has been derived from, by id */
+    private final int[] derived;
+    /* the rows of all labelings that changed the condition of some argument */
+    private final BitSet changed;
+
+    /**
+     * initialize the Learner with a set of arguments
+     * @param args a set of arguments
+     */
+    public LazyAFLearner(Collection<Argument> args) {
+        super(args);
+        this.labelings = new LabelingMatrix(this.index);
+        this.derived = new int[this.index.size()];
+        this.changed = new BitSet();
+    }
+
+    /**
+     * store the labeling, the acceptance conditions are only derived from it when the learner is queried
+     * @param labeling some labeling of the set of arguments
+     * @return true if the labeling was stored successfully
+     */
+    public synchronized boolean learnLabeling(Input labeling) {
+        this.labelings.add(labeling);
+        return true;
+    }
+
+    /**
+     * store the given labelings, see learnLabeling
+     * @param inputs some labelings of the set of arguments
+     * @return true if the labelings were stored successfully
+     */
+    public synchronized boolean learnLabelings(Collection<Input> inputs) {
+        for (Input labeling: inputs) {
+            this.labelings.add(labeling);
+        }
+        return true;
+    }
+
+    /**
+     * store all labelings of the given matrix, see learnLabeling
+     * the packed rows are copied directly, so no labelings are created
+     * @param matrix some labelings of the set of arguments
+     * @return true if the labelings were stored successfully
+     */
+    public synchronized boolean learnLabelings(LabelingMatrix matrix) {
+        this.labelings.addAll(matrix);
+        return true;
+    }
+
+    /**
+     * @return the number of stored labelings, regardless of whether they have been derived yet
+     */
+    public synchronized int getNumberOfLabelings() {
+        return this.labelings.size();
+    }
+
+    /**
+     * derive only the acceptance condition of the given argument
+     * @param arg some argument
+     * @return the acceptance condition of the argument as a formula
+     */
+    public AssociativePlFormula getCondition(Argument arg) {
+        int id = this.index.getId(arg);
+        this.derive(id);
+        return (AssociativePlFormula) this.conditions[id].getCondition();
+    }
+
+    /**
+     * derive only the acceptance condition of the given argument
+     * @param arg some argument
+     * @return the number of partial attack relations of the argument
+     */
+    public BigInteger countModels(Argument arg) {
+        int id = this.index.getId(arg);
+        this.derive(id);
+        return this.conditions[id].countModels();
+    }
+
+    public synchronized long getNumberOfSkippedLabelings() {
+        this.deriveAll();
+        return this.labelings.size() - this.changed.cardinality();
+    }
+
+    public long getNumberOfFrameworks(boolean shortcut) {
+        this.deriveAll();
+        return super.getNumberOfFrameworks(shortcut);
+    }
+
+    public boolean isIdentified() {
+        this.deriveAll();
+        return super.isIdentified();
+    }
+
+    public Map<Argument, Collection<Collection<Attack>>> computePartialAttackRelations() {
+        this.deriveAll();
+        return super.computePartialAttackRelations();
+    }
+
+    public Collection<DungTheory> getModels() {
+        this.deriveAll();
+        return super.getModels();
+    }
+
+    public Stream<DungTheory> streamModels() {
+        this.deriveAll();
+        return super.streamModels();
+    }
+
+    public DungTheory getModel() {
+        this.deriveAll();
+        return super.getModel();
+    }
+
+    public DungTheory getMinimalModel() {
+        this.deriveAll();
+        return super.getMinimalModel();
+    }
+
+    public DungTheory getMaximalModel() {
+        this.deriveAll();
+        return super.getMaximalModel();
+    }
+
+    public void printStatus(boolean dnf) {
+        this.deriveAll();
+        super.printStatus(dnf);
+    }
+
+    public BigInteger getExactNumberOfFrameworks() {
+        this.deriveAll();
+        return super.getExactNumberOfFrameworks();
+    }
+
+    public double getLog2NumberOfFrameworks() {
+        this.deriveAll();
+        return super.getLog2NumberOfFrameworks();
+    }
+
+    /**
+     * bring the condition of the given argument up to date with all stored labelings
+     * only the templates of the labelings that label the argument are created, the labelings themselves never are
+     * @param id id of some argument
+     */
+    private synchronized void derive(int id) {
+        int size = this.labelings.size();
+        for (int row = this.derived[id]; row < size; row++) {
+            ArgumentStatus status = this.labelings.getStatus(row, id);
+            if (status != null && this.learnConstraint(id, this.labelings.getSemantics(row), status, this.labelings.getTemplates(row))) {
+                this.changed.set(row);
+            }
+        }
+        this.derived[id] = size;
+    }
+
+    /**
+     * bring the conditions of all arguments up to date with all stored labelings
+     * the templates of the labelings are created from the packed rows chunk by chunk, each chunk is then derived for all
+     * arguments in parallel, which read their statuses directly from the matrix
+     */
+    private synchronized void deriveAll() {
+        int size = this.labelings.size();
+        int from = size;
+        for (int d: this.derived) {
+            from = Math.min(from, d);
+        }
+        for (int start = from; start < size; start += LabelingBatch.CHUNK_SIZE) {
+            int first = start;
+            int end = Math.min(size, start + LabelingBatch.CHUNK_SIZE);
+            // creating the templates dominates for cheap constraints, so they are created in parallel as well
+            ConstraintTemplates[] templates = IntStream.range(first, end).parallel()
+                    .mapToObj(this.labelings::getTemplates)
+                    .toArray(ConstraintTemplates[]::new);
+            BitSet changedInChunk = IntStream.range(0, this.index.size()).parallel()
+                    .filter(id -> this.derived[id] < end)
+                    .mapToObj(id -> this.derive(id, templates, first))
+                    .reduce(new BitSet(), (a, b) -> {
+                        BitSet union = (BitSet) a.clone();
+                        union.or(b);
+                        return union;
+                    });
+            for (int i = changedInChunk.nextSetBit(0); i >= 0; i = changedInChunk.nextSetBit(i + 1)) {
+                this.changed.set(first + i);
+            }
+        }
+    }
+
+    /**
+     * derive the condition of the given argument from the given consecutive labelings that it has not seen yet
+     * @param id id of some argument
+     * @param templates the templates of the labelings of consecutive rows
+     * @param first the row of the first labeling
+     * @return the positions in the given array of all labelings that changed the condition
+     */
+    private BitSet derive(int id, ConstraintTemplates[] templates, int first) {
+        BitSet changedRows = new BitSet();
+        for (int i = Math.max(0, this.derived[id] - first); i < templates.length; i++) {
+            ArgumentStatus status = this.labelings.getStatus(first + i, id);
+            if (status != null && this.learnConstraint(id, this.labelings.getSemantics(first + i), status, templates[i])) {
+                changedRows.set(i);
+            }
+        }
+        this.derived[id] = first + templates.length;
+        return changedRows;
+    }
+}
@@ -2,43 +2,55 @@ package learning;
 
 
 import org.tweetyproject.arg.dung.syntax.Argument;
-import org.tweetyproject.arg.dung.syntax.Attack;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
-import org.tweetyproject.commons.Interpretation;
-import org.tweetyproject.logics.pl.sat.Sat4jSolver;
-import org.tweetyproject.logics.pl.sat.SatSolver;
-import org.tweetyproject.logics.pl.semantics.PossibleWorld;
 import org.tweetyproject.logics.pl.syntax.*;
+import syntax.BitSetAttackConstraint;
 import syntax.ClausalAttackConstraint;
 import syntax.Input;
+import syntax.LabelingMatrix;
+import syntax.StoredAttackConstraint;
+import util.ConstraintStore;
+import util.WorkerGroup;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the iterative algorithm for learning argumentation frameworks from labelings
  * @author Lars Bengel
  */
-public class OptimizedParallelAFLearner implements AFLearner {
+public class OptimizedParallelAFLearner extends AbstractAFLearner {
 
-    /* the set of all arguments */
-    private Collection<Argument> args;
-    /* structure for storing the acceptance condition of each argument */
-    private Map<Argument, ClausalAttackConstraint> conditions;
+    /* the labeling that is currently learned by learnLabeling */
+    private Input current;
+    /* learns the current labeling for a single argument, created once so that learning a labeling allocates nothing */
+    private final WorkerGroup.Task learnCurrent = id -> this.learnConstraintIfNew(id, this.current);
 
     /**
      * initialize the Learner with a set of arguments
      * @param args a set of arguments
      */
     public OptimizedParallelAFLearner(Collection<Argument> args) {
-        this.args = args;
-        this.conditions = new ConcurrentHashMap<>();
-        for (Argument a: args) {
-            this.conditions.put(a, new ClausalAttackConstraint(a));
-        }
+        this(args, false);
+    }
+
+    /**
+     * initialize the Learner with a set of arguments
+     * @param args a set of arguments
+     * @param useBitSets if true, the acceptance conditions are represented as bitsets instead of clauses
+     */
+    public OptimizedParallelAFLearner(Collection<Argument> args, boolean useBitSets) {
+        super(args, (a, index) -> useBitSets ? new BitSetAttackConstraint(a, index) : new ClausalAttackConstraint(a, index));
+    }
 
+    /**
+     * initialize the Learner with a set of arguments whose acceptance conditions are kept in the given store
+     * the forbidden attackers and clauses of all arguments then reside outside of the heap, see ConstraintStore
+     * @param args a set of arguments
+     * @param store some empty store for the given number of arguments
+     */
+    public OptimizedParallelAFLearner(Collection<Argument> args, ConstraintStore store) {
+        super(args, (a, index) -> new StoredAttackConstraint(a, index, store));
     }
 
     /**
@@ -49,90 +61,86 @@ public class OptimizedParallelAFLearner implements AFLearner {
      * @return true if the labeling was learned successfully
      */
     public boolean learnLabeling(Input labeling) {
-        this.args.parallelStream().forEach(arg -> {
-            ClausalAttackConstraint old_condition = this.conditions.get(arg);
-            ClausalAttackConstraint new_condition = new ClausalAttackConstraint(arg, labeling);
-            ClausalAttackConstraint combined_condition = new ClausalAttackConstraint(old_condition, new_condition);
-            this.conditions.put(arg, combined_condition);
-        });
+        // compute the statuses and status partitions by id once, before the parallel part
+        labeling.getStatuses(this.index);
+        // only the arguments whose condition does not imply the new one yet are updated, without collecting their ids
+        // the persistent workers are used instead of a parallel stream, which would allocate its tasks for every labeling
+        this.current = labeling;
+        int learned;
+        try {
+            learned = WorkerGroup.getCommon().run(this.index.size(), this.learnCurrent);
+        } finally {
+            this.current = null;
+        }
+        if (learned == 0) {
+            this.skippedLabelings++;
+        }
         return true;
     }
 
-    @Override
-    public Collection<DungTheory> getModels() {
-        return null;
+    /**
+     * learn a set of labelings at once
+     * the arguments are processed in blocks, each block learns all labelings in one pass, this is done in parallel
+     * @param inputs some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
+     */
+    public boolean learnLabelings(Collection<Input> inputs) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, inputs, true, this::learnConstraintIfNew);
+        return true;
     }
 
-    // TODO: doesnt work like this probably. need an add function for the ClausalAttackConstraint
-    public boolean learnLabelings(Collection<Input> inputs) {
-        //inputs.parallelStream().forEach(this::learnLabeling);
+    /**
+     * learn all labelings of the given matrix, see learnLabelings(Collection)
+     * @param matrix some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
+     */
+    public boolean learnLabelings(LabelingMatrix matrix) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, matrix, true, this::learnConstraintIfNew);
         return true;
     }
 
     /**
-     * compute a single model that satisfies all attack constraints
-     * computation for each argument constraint is independent and thus can be done in parallel
-     * @return a dung theory for which all attack constraints are satisfied
+     * learn the constraint of the given argument wrt. the given labeling, unless it is implied already
+     * @param id id of some argument
+     * @param labeling some labeling of the set of arguments
+     * @return true if the constraint of the argument has been updated
      */
-    public DungTheory getModel() {
-        DungTheory theory = new DungTheory();
-        theory.addAll(this.args);
-
-        Map<Argument, Collection<Attack>> partialAttackRelations = new ConcurrentHashMap<>();
-
-        SatSolver solver = new Sat4jSolver();
-        this.args.parallelStream().forEach(a -> {
-            Collection<PlFormula> kb = this.conditions.get(a).getCondition();
-            PossibleWorld witness = (PossibleWorld) solver.getWitness(kb);
-            Collection<Attack> partialAttackRelation = this.interpretationToAttacks(witness, a);
-            partialAttackRelations.put(a, partialAttackRelation);
-        });
-        for (Collection<Attack> attacks: partialAttackRelations.values()) {
-            theory.addAllAttacks(attacks);
+    private boolean learnConstraintIfNew(int id, Input labeling) {
+        if (this.tracker.entails(id, labeling)) {
+            return false;
         }
-        return theory;
+        this.learnConstraint(id, labeling);
+        return true;
     }
 
     /**
-     * compute the set of attacks that correspond to the given interpretation of an attack constraint
-     * @param itp an interpretation
-     * @param a the argument associated with the attack constraint the interpretation is coming from
-     * @return the set of attacks corresponding to itp
+     * compute the constraint of the given argument wrt. the given labeling and combine it with its previous constraint
+     * @param id id of some argument
+     * @param labeling some labeling of the set of arguments
      */
-    private Collection<Attack> interpretationToAttacks(PossibleWorld itp, Argument a) {
-        Collection<Attack> attacks = new HashSet<>();
-        for (Proposition b: itp) {
-            Attack attack = new Attack(new Argument(b.getName()), a);
-            attacks.add(attack);
-        }
-        return attacks;
+    private void learnConstraint(int id, Input labeling) {
+        // the condition is updated in place from the templates of the labeling, the tracker only reads it
+        this.conditions[id].add(labeling);
+        this.tracker.update(id);
     }
 
-    public void printStatus() {
-        this.printStatus(false);
+    /**
+     * compute the set of argumentation frameworks that satisfy all acceptance conditions
+     * the frameworks are collected from streamModels, so the partial attack relations of each argument are never
+     * materialized as a whole
+     * @return the set of argumentation frameworks obtained from learning
+     */
+    public Collection<DungTheory> getModels() {
+        return this.streamModels().collect(Collectors.toSet());
     }
 
     /**
      * print the current status of the acceptance conditions
      */
     public void printStatus(boolean dnf) {
-        for (Argument arg: this.args) {
-            ClausalAttackConstraint condition = this.conditions.get(arg);
-            System.out.print(arg + "\t\t");
-            if (!dnf) {
-                System.out.print(condition.getCondition() + "\t\t\t");
-            } else {
-                System.out.print(condition.getCondition() + "\t\t\t");
-                System.out.println(condition.getCondition());
-            }
+        for (int id = 0; id < this.index.size(); id++) {
+            System.out.println(this.index.getArgument(id) + "\t\t" + this.conditions[id].getCondition());
         }
     }
 
-    public long getNumberOfFrameworks() {
-        return getNumberOfFrameworks(false);
-    }
-
-    public long getNumberOfFrameworks(boolean shortcut) {
-        return 0;
-    }
 }
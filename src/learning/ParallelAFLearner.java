@@ -2,41 +2,56 @@ package learning;
 
 
 import org.tweetyproject.arg.dung.syntax.Argument;
-import org.tweetyproject.arg.dung.syntax.Attack;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
-import org.tweetyproject.logics.pl.sat.Sat4jSolver;
-import org.tweetyproject.logics.pl.sat.SatSolver;
 import org.tweetyproject.logics.pl.semantics.PossibleWorld;
 import org.tweetyproject.logics.pl.syntax.*;
+import syntax.BitSetAttackConstraint;
 import syntax.Input;
+import syntax.LabelingMatrix;
 import syntax.SimpleAttackConstraint;
+import syntax.StoredAttackConstraint;
+import util.ConstraintStore;
 import util.ModelComputation;
+import util.WorkerGroup;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the iterative algorithm for learning argumentation frameworks from labelings
  * @author Lars Bengel
  */
-public class ParallelAFLearner implements AFLearner {
+public class ParallelAFLearner extends AbstractAFLearner {
 
-    /* the set of all arguments */
-    private Collection<Argument> args;
-    /* structure for storing the acceptance condition of each argument */
-    private Map<Argument, SimpleAttackConstraint> conditions;
+    /* the labeling that is currently learned by learnLabeling */
+    private Input current;
+    /* learns the current labeling for a single argument, created once so that learning a labeling allocates nothing */
+    private final WorkerGroup.Task learnCurrent = id -> this.learnConstraintIfNew(id, this.current);
 
     /**
      * initialize the Learner with a set of arguments
      * @param args a set of arguments
      */
     public ParallelAFLearner(Collection<Argument> args) {
-        this.args = args;
-        this.conditions = new ConcurrentHashMap<>();
-        for (Argument a: args) {
-            this.conditions.put(a, new SimpleAttackConstraint(a));
-        }
+        this(args, false);
+    }
 
+    /**
+     * initialize the Learner with a set of arguments
+     * @param args a set of arguments
+     * @param useBitSets if true, the acceptance conditions are represented as bitsets instead of formulas
+     */
+    public ParallelAFLearner(Collection<Argument> args, boolean useBitSets) {
+        super(args, (a, index) -> useBitSets ? new BitSetAttackConstraint(a, index) : new SimpleAttackConstraint(a, index));
+    }
+
+    /**
+     * initialize the Learner with a set of arguments whose acceptance conditions are kept in the given store
+     * the forbidden attackers and clauses of all arguments then reside outside of the heap, see ConstraintStore
+     * @param args a set of arguments
+     * @param store some empty store for the given number of arguments
+     */
+    public ParallelAFLearner(Collection<Argument> args, ConstraintStore store) {
+        super(args, (a, index) -> new StoredAttackConstraint(a, index, store));
     }
 
     /**
@@ -47,14 +62,69 @@ public class ParallelAFLearner implements AFLearner {
      * @return true if the labeling was learned successfully
      */
     public boolean learnLabeling(Input labeling) {
-        this.conditions.keySet().parallelStream().forEach(arg -> {
-            SimpleAttackConstraint old_condition = this.conditions.get(arg);
-            SimpleAttackConstraint new_condition = new SimpleAttackConstraint(arg, labeling);
-            this.conditions.put(arg, new SimpleAttackConstraint(old_condition, new_condition));
-        });
+        // compute the statuses and status partitions by id once, before the parallel part
+        labeling.getStatuses(this.index);
+        // only the arguments whose condition does not imply the new one yet are updated, without collecting their ids
+        // the persistent workers are used instead of a parallel stream, which would allocate its tasks for every labeling
+        this.current = labeling;
+        int learned;
+        try {
+            learned = WorkerGroup.getCommon().run(this.index.size(), this.learnCurrent);
+        } finally {
+            this.current = null;
+        }
+        if (learned == 0) {
+            this.skippedLabelings++;
+        }
+        return true;
+    }
+
+    /**
+     * learn a set of labelings at once
+     * the arguments are processed in blocks, each block learns all labelings in one pass, this is done in parallel
+     * @param inputs some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
+     */
+    public boolean learnLabelings(Collection<Input> inputs) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, inputs, true, this::learnConstraintIfNew);
+        return true;
+    }
+
+    /**
+     * learn all labelings of the given matrix, see learnLabelings(Collection)
+     * @param matrix some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
+     */
+    public boolean learnLabelings(LabelingMatrix matrix) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, matrix, true, this::learnConstraintIfNew);
+        return true;
+    }
+
+    /**
+     * learn the condition of the given argument wrt. the given labeling, unless it is implied already
+     * @param id id of some argument
+     * @param labeling some labeling of the set of arguments
+     * @return true if the condition of the argument has been updated
+     */
+    private boolean learnConstraintIfNew(int id, Input labeling) {
+        if (this.tracker.entails(id, labeling)) {
+            return false;
+        }
+        this.learnConstraint(id, labeling);
         return true;
     }
 
+    /**
+     * compute the condition of the given argument wrt. the given labeling and combine it with its previous condition
+     * @param id id of some argument
+     * @param labeling some labeling of the set of arguments
+     */
+    private void learnConstraint(int id, Input labeling) {
+        // the condition is updated in place from the templates of the labeling, the tracker only reads it
+        this.conditions[id].add(labeling);
+        this.tracker.update(id);
+    }
+
     /**
      * compute the set of argumentation frameworks that satisfy all acceptance conditions
      * 1. for each acceptance condition (argument) compute all models
@@ -65,11 +135,11 @@ public class ParallelAFLearner implements AFLearner {
     public Collection<DungTheory> getModels() {
         Collection<DungTheory> theories = new HashSet<>();
         theories.add(new DungTheory());
-        for (Argument arg: this.args) {
+        for (int id = 0; id < this.index.size(); id++) {
+            Argument arg = this.index.getArgument(id);
             // for every argument get acceptance condition and combine with optional condition
-            SimpleAttackConstraint attackConstraint = this.conditions.get(arg);
-            AssociativePlFormula condition = attackConstraint.getCondition();
-            AssociativePlFormula optionalCondition = attackConstraint.getOptionalCondition(this.args);
+            AssociativePlFormula condition = (AssociativePlFormula) this.conditions[id].getCondition();
+            AssociativePlFormula optionalCondition = this.conditions[id].getOptionalCondition(this.args);
             // combine and transform to DNF
             AssociativePlFormula overallAcceptanceCondition = (AssociativePlFormula) new Conjunction(condition, new Disjunction(new Tautology(), optionalCondition)).toDnf().trim();
             // get all models of the condition
@@ -83,8 +153,7 @@ public class ParallelAFLearner implements AFLearner {
                 DungTheory theory = new DungTheory();
                 theory.addAll(this.args);
                 for (Proposition p: world) {
-                    Argument attacker = new Argument(p.getName());
-                    theory.addAttack(attacker, arg);
+                    theory.addAttack(this.index.getArgument(this.index.getId(p)), arg);
                 }
                 for (DungTheory theory1: theories) {
                     DungTheory new_theory = new DungTheory(theory1);
@@ -97,98 +166,21 @@ public class ParallelAFLearner implements AFLearner {
         return theories;
     }
 
-    public DungTheory getModel() {
-        DungTheory theory = new DungTheory();
-        theory.addAll(this.args);
-        Map<Argument, Collection<Attack>> partialAttackRelations = new ConcurrentHashMap<>();
-
-        this.args.parallelStream().forEach(a -> {
-            // use Sat4j solver included in Java. TODO should be optimized
-            SatSolver solver = new Sat4jSolver();
-            PlFormula condition = this.conditions.get(a).getCondition();
-            PossibleWorld witness = (PossibleWorld) solver.getWitness(condition);
-            Collection<Attack> partialAttackRelation = this.interpretationToAttacks(witness, a);
-            partialAttackRelations.put(a, partialAttackRelation);
-        });
-        for (Collection<Attack> attacks: partialAttackRelations.values()) {
-            theory.addAllAttacks(attacks);
-        }
-        return theory;
-    }
-
-    /**
-     * compute the set of attacks that correspond to the given interpretation of an attack constraint
-     * @param itp an interpretation
-     * @param a the argument associated with the attack constraint the interpretation is coming from
-     * @return the set of attacks corresponding to itp
-     */
-    private Collection<Attack> interpretationToAttacks(PossibleWorld itp, Argument a) {
-        Collection<Attack> attacks = new HashSet<>();
-        for (Proposition b: itp) {
-            Attack attack = new Attack(new Argument(b.getName()), a);
-            attacks.add(attack);
-        }
-        return attacks;
-    }
-
-    public void printStatus() {
-        this.printStatus(false);
-    }
-
     /**
      * print the current status of the acceptance conditions
      */
     public void printStatus(boolean dnf) {
-        for (Argument arg: this.args) {
-            SimpleAttackConstraint condition = this.conditions.get(arg);
-            System.out.print(arg + "\t\t");
+        for (int id = 0; id < this.index.size(); id++) {
+            AssociativePlFormula condition = (AssociativePlFormula) this.conditions[id].getCondition();
+            System.out.print(this.index.getArgument(id) + "\t\t");
             if (!dnf) {
-                System.out.print(condition.getCondition() + "\t\t\t");
+                System.out.print(condition + "\t\t\t");
             } else {
-                System.out.print(condition.getCondition().toDnf() + "\t\t\t");
-                System.out.println(condition.getCondition().getModels());
+                System.out.print(condition.toDnf() + "\t\t\t");
+                System.out.println(condition.getModels());
             }
-            System.out.println(condition.getOptionalCondition(this.args));
+            System.out.println(this.conditions[id].getOptionalCondition(this.args));
         }
     }
 
-    public long getNumberOfFrameworks() {
-        return getNumberOfFrameworks(false);
-    }
-
-    public long getNumberOfFrameworks(boolean shortcut) {
-        long total = 1;
-        for (Argument arg: this.args) {
-            SimpleAttackConstraint attackConstraint = this.conditions.get(arg);
-            AssociativePlFormula condition = attackConstraint.getCondition();
-
-            // optional attackers are all arguments which do not occur in the necessary condition
-            int numOptionalArgs = this.args.size() - condition.getAtoms().size();
-
-            // if there is any optional attacker, then there is still more than one framework possible
-            if ( shortcut && numOptionalArgs > 0) {
-                return -1;
-            }
-
-            if (shortcut && ModelComputation.existsMoreThanOneModelOfDNF(condition)) {
-                return -1;
-            }
-
-            // number of frameworks is the number of models that the necessary condition has
-            // i.e. all configurations of attacks that satisfy the conditions
-            long numModelsCondition = ModelComputation.getModelsOfDNF(condition).size();
-
-            // for the optional attacks we have 2^n possibilities
-            long numModelsOptional = (long) Math.pow(2, numOptionalArgs);
-
-            // the product of both above values is the number of partial attack relations of the argument
-            long numModelsArg = numModelsCondition * numModelsOptional;
-
-            //System.out.println(arg + ": " + numModelsArg);
-
-            // in total the number of frameworks is the product of the value for each argument
-            total = total * numModelsArg;
-        }
-        return total;
-    }
 }
@@ -1,104 +1,130 @@
 
 package learning;
 
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.arg.dung.syntax.Attack;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.BitSetAttackConstraint;
+import syntax.ConstraintTemplates;
 import syntax.SimpleAttackConstraint;
 import syntax.Input;
+import syntax.LabelingMatrix;
+import syntax.StoredAttackConstraint;
+import util.ConstraintStore;
 import util.ModelComputation;
-import org.tweetyproject.logics.pl.sat.Sat4jSolver;
-import org.tweetyproject.logics.pl.sat.SatSolver;
 import org.tweetyproject.logics.pl.semantics.PossibleWorld;
 import org.tweetyproject.logics.pl.syntax.*;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the iterative algorithm for learning argumentation frameworks from labelings
  * @author Lars Bengel
  */
-public class SimpleAFLearner implements AFLearner {
+public class SimpleAFLearner extends AbstractAFLearner {
 
-    /* the set of all arguments */
-    protected Collection<Argument> args;
-    /* structure for storing the acceptance condition of each argument */
-    protected Map<Argument, SimpleAttackConstraint> conditions;
 
     /**
      * initialize the Learner with a set of arguments
      * @param args a set of arguments
      */
     public SimpleAFLearner(Collection<Argument> args) {
-        this.args = args;
-        this.conditions = new ConcurrentHashMap<>();
-        for (Argument a: args) {
-            this.conditions.put(a, new SimpleAttackConstraint(a));
-        }
+        this(args, false);
+    }
 
+    /**
+     * initialize the Learner with a set of arguments
+     * @param args a set of arguments
+     * @param useBitSets if true, the acceptance conditions are represented as bitsets instead of formulas
+     */
+    public SimpleAFLearner(Collection<Argument> args, boolean useBitSets) {
+        super(args, (a, index) -> useBitSets ? new BitSetAttackConstraint(a, index) : new SimpleAttackConstraint(a, index));
+    }
+
+    /**
+     * initialize the Learner with a set of arguments whose acceptance conditions are kept in the given store
+     * the forbidden attackers and clauses of all arguments then reside outside of the heap, see ConstraintStore
+     * @param args a set of arguments
+     * @param store some empty store for the given number of arguments
+     */
+    public SimpleAFLearner(Collection<Argument> args, ConstraintStore store) {
+        super(args, (a, index) -> new StoredAttackConstraint(a, index, store));
     }
 
     /**
      * learn a single labeling
      * i.e. compute the acceptance condition for each argument a wrt to the given labeling and combine it with the
      * previous acceptance condition of a
+     * once the conditions have reached their final size, this does not allocate any memory, unless bitsets are used
      * @param labeling some labeling of the set of arguments
      * @return true if the labeling was learned successfully
      */
     public boolean learnLabeling(Input labeling) {
-        for (Argument arg: labeling.keySet()) {
-            SimpleAttackConstraint old_condition = this.conditions.get(arg);
-            SimpleAttackConstraint new_condition = new SimpleAttackConstraint(arg, labeling);
-            this.conditions.put(arg, new SimpleAttackConstraint(old_condition, new_condition));
+        ArgumentStatus[] statuses = labeling.getStatuses(this.index);
+        boolean redundant = true;
+        for (int id = 0; id < statuses.length; id++) {
+            if (this.learnConstraint(id, labeling)) {
+                redundant = false;
+            }
+        }
+        if (redundant) {
+            this.skippedLabelings++;
         }
         return true;
     }
 
-    public long getNumberOfFrameworks() {
-        return getNumberOfFrameworks(false);
+    /**
+     * learn a set of labelings at once
+     * the arguments are processed in blocks, each block learns all labelings in one pass
+     * @param inputs some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
+     */
+    public boolean learnLabelings(Collection<Input> inputs) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, inputs, false, this::learnConstraint);
+        return true;
     }
 
     /**
-     * computes whether there is more than one argumentation framework that satisfies the internal conditions
-     * helpful for break conditions when learning
-     * @param shortcut if true, then only return 1 or -1
-     * @return 1 if there is only one AF, -1 if there is more than one
+     * learn all labelings of the given matrix, see learnLabelings(Collection)
+     * @param matrix some labelings of the set of arguments
+     * @return true if the labelings were learned successfully
      */
-    public long getNumberOfFrameworks(boolean shortcut) {
-        long total = 1;
-        for (Argument arg: this.args) {
-            SimpleAttackConstraint attackConstraint = this.conditions.get(arg);
-            AssociativePlFormula condition = (AssociativePlFormula) attackConstraint.getCondition().trim().toDnf();
-
-            // optional attackers are all arguments which do not occur in the necessary condition
-            int numOptionalArgs = this.args.size() - condition.getAtoms().size();
-
-            // if there is any optional attacker, then there is still more than one framework possible
-            if ( shortcut && numOptionalArgs > 0) {
-                return -1;
-            }
-
-            if (shortcut && ModelComputation.existsMoreThanOneModelOfDNF(condition)) {
-                return -1;
-            }
-
-            // number of frameworks is the number of models that the necessary condition has
-            // i.e. all configurations of attacks that satisfy the conditions
-            long numModelsCondition = ModelComputation.getModelsOfDNF(condition).size();
-
-            // for the optional attacks we have 2^n possibilities
-            long numModelsOptional = (long) Math.pow(2, numOptionalArgs);
-
-            // the product of both above values is the number of partial attack relations of the argument
-            long numModelsArg = numModelsCondition * numModelsOptional;
+    public boolean learnLabelings(LabelingMatrix matrix) {
+        this.skippedLabelings += LabelingBatch.learn(this.index, matrix, false, this::learnConstraint);
+        return true;
+    }
 
-            //System.out.println(arg + ": " + numModelsArg +" = "+numModelsCondition+" * "+numModelsOptional);
+    /**
+     * compute the condition of the given argument wrt. the given labeling and combine it with its previous condition
+     * arguments whose condition already implies the new one are skipped
+     * @param id id of some argument
+     * @param labeling some labeling of the set of arguments
+     * @return true if the condition of the argument has been updated
+     */
+    protected boolean learnConstraint(int id, Input labeling) {
+        ArgumentStatus status = labeling.getStatuses(this.index)[id];
+        return status != null && this.learnConstraint(id, labeling.getSemantics(), status, labeling.getTemplates(this.index));
+    }
 
-            // in total the number of frameworks is the product of the value for each argument
-            total = total * numModelsArg;
+    /**
+     * see learnConstraint(int, Input), the labeling is given by its semantics, the status of the argument and its
+     * templates wrt. the index of this learner
+     * @param id id of some argument
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if the condition of the argument has been updated
+     */
+    protected boolean learnConstraint(int id, Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        if (this.tracker.entails(id, semantics, status, templates)) {
+            return false;
         }
-        return total;
+        // the condition is updated in place from the templates of the labeling, the tracker only reads it
+        this.conditions[id].add(semantics, status, templates);
+        this.tracker.update(id);
+        return true;
     }
 
     /**
@@ -107,12 +133,12 @@ public class SimpleAFLearner implements AFLearner {
     public Map<Argument, Collection<Collection<Attack>>> computePartialAttackRelations() {
         Map<Argument, Collection<Collection<Attack>>> attackRelationMap = new HashMap<>();
         long total = 1;
-        for (Argument arg: this.args) {
+        for (int id = 0; id < this.index.size(); id++) {
+            Argument arg = this.index.getArgument(id);
             // for every argument get acceptance condition and combine with optional condition
             // the optional condition is needed here so that the solver actually recognizes all atoms
-            SimpleAttackConstraint attackConstraint = this.conditions.get(arg);
-            AssociativePlFormula condition = attackConstraint.getCondition();
-            AssociativePlFormula optionalCondition = attackConstraint.getOptionalCondition(this.args);
+            AssociativePlFormula condition = (AssociativePlFormula) this.conditions[id].getCondition();
+            AssociativePlFormula optionalCondition = this.conditions[id].getOptionalCondition(this.args);
             // combine and transform to DNF
             //AssociativePlFormula overallAcceptanceCondition = (AssociativePlFormula) new Conjunction(condition, new Disjunction(new Tautology(), optionalCondition)).toDnf().trim();
             AssociativePlFormula overallAcceptanceCondition = (AssociativePlFormula) new Conjunction(condition, new Disjunction(new Tautology(), optionalCondition));
@@ -126,7 +152,7 @@ public class SimpleAFLearner implements AFLearner {
             for (PossibleWorld world: models) {
                 Collection<Attack> attackRelation = new HashSet<>();
                 for (Proposition p: world) {
-                    Argument attacker = new Argument(p.getName());
+                    Argument attacker = this.index.getArgument(this.index.getId(p));
                     attackRelation.add(new Attack(attacker, arg));
                 }
                 attackRelations.add(attackRelation);
@@ -149,11 +175,11 @@ public class SimpleAFLearner implements AFLearner {
     public Collection<DungTheory> getModels() {
         Collection<DungTheory> theories = new HashSet<>();
         theories.add(new DungTheory());
-        for (Argument arg: this.args) {
+        for (int id = 0; id < this.index.size(); id++) {
+            Argument arg = this.index.getArgument(id);
             // for every argument get acceptance condition and combine with optional condition
-            SimpleAttackConstraint attackConstraint = this.conditions.get(arg);
-            AssociativePlFormula condition = attackConstraint.getCondition();
-            AssociativePlFormula optionalCondition = attackConstraint.getOptionalCondition(this.args);
+            AssociativePlFormula condition = (AssociativePlFormula) this.conditions[id].getCondition();
+            AssociativePlFormula optionalCondition = this.conditions[id].getOptionalCondition(this.args);
             // combine and transform to DNF
             AssociativePlFormula overallAcceptanceCondition = (AssociativePlFormula) new Conjunction(condition, new Disjunction(new Tautology(), optionalCondition)).toDnf().trim();
             // get all models of the condition
@@ -167,8 +193,7 @@ public class SimpleAFLearner implements AFLearner {
                 DungTheory theory = new DungTheory();
                 theory.addAll(this.args);
                 for (Proposition p: world) {
-                    Argument attacker = new Argument(p.getName());
-                    theory.addAttack(attacker, arg);
+                    theory.addAttack(this.index.getArgument(this.index.getId(p)), arg);
                 }
                 for (DungTheory theory1: theories) {
                     DungTheory new_theory = new DungTheory(theory1);
@@ -197,42 +222,22 @@ public class SimpleAFLearner implements AFLearner {
 
      */
 
-    public DungTheory getModel() {
-        DungTheory theory = new DungTheory();
-        theory.addAll(this.args);
-        for (Argument arg: this.args) {
-            // use Sat4j solver included in Java. TODO should be optimized
-            SatSolver solver = new Sat4jSolver();
-            PlFormula condition = this.conditions.get(arg).getCondition();
-            PossibleWorld model = (PossibleWorld) solver.getWitness(condition);
-            //PossibleWorld model = ModelComputation.getMinModelOfDNF((AssociativePlFormula) this.conditions.get(arg).getCondition().toDnf());
-            for (Proposition p: model) {
-                Argument attacker = new Argument(p.getName());
-                theory.addAttack(attacker, arg);
-            }
-        }
-        return theory;
-    }
-
-    public void printStatus() {
-        this.printStatus(false);
-    }
-
     /**
      * @param dnf if true, the acceptance conditions are transformed to DNF before printing
      * print the current status of the acceptance conditions
      */
     public void printStatus(boolean dnf) {
-        for (Argument arg: this.args) {
-            SimpleAttackConstraint condition = this.conditions.get(arg);
-            System.out.print(arg + ":\t\t");
+        for (int id = 0; id < this.index.size(); id++) {
+            AssociativePlFormula condition = (AssociativePlFormula) this.conditions[id].getCondition();
+            System.out.print(this.index.getArgument(id) + ":\t\t");
             if (!dnf) {
-                System.out.print(condition.getCondition() + "\t\t\t");
+                System.out.print(condition + "\t\t\t");
             } else {
-                System.out.print(condition.getCondition().toDnf() + "\t\t\t");
-                System.out.println(condition.getCondition().getModels());
+                System.out.print(condition.toDnf() + "\t\t\t");
+                System.out.println(condition.getModels());
             }
-            System.out.println(condition.getOptionalCondition(this.args));
+            System.out.println(this.conditions[id].getOptionalCondition(this.args));
         }
     }
+
 }
@@ -0,0 +1,143 @@
+package syntax;
+
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.logics.pl.syntax.Negation;
+import org.tweetyproject.logics.pl.syntax.Proposition;
+import util.ClauseStore;
+
+import java.util.*;
+
+/**
+ * Maps each argument of a fixed set of arguments to a dense integer id from [0, size)
+ * Each argument (and the proposition representing it in the attack constraints) is only created once,
+ * so that the learners can work on the ids internally and only convert back at the API boundary
+ *
+ * @author Lars Bengel
+ */
+public class ArgumentIndex {
+
+    /** the argument for each id */
+    private final Argument[] arguments;
+    /** the proposition representing each argument in the attack constraints */
+    private final Proposition[] propositions;
+    /** the negation of each proposition */
+    private final Negation[] negations;
+    /** the id of each argument, keyed by the name of the argument */
+    private final Map<String, Integer> ids;
+    /** the clauses over the ids of this index, shared by all constraints using this index */
+    private final ClauseStore clauses;
+
+    /**
+     * initialize the index for the given arguments, ids are assigned in iteration order
+     * @param args a set of arguments
+     */
+    public ArgumentIndex(Collection<Argument> args) {
+        this.arguments = new Argument[args.size()];
+        this.propositions = new Proposition[args.size()];
+        this.negations = new Negation[args.size()];
+        this.ids = new HashMap<>(args.size() * 2);
+        int id = 0;
+        for (Argument a: args) {
+            if (this.ids.putIfAbsent(a.getName(), id) != null) {
+                continue;
+            }
+            this.arguments[id] = a;
+            this.propositions[id] = new Proposition(a.getName());
+            this.negations[id] = new Negation(this.propositions[id]);
+            id++;
+        }
+        if (id != this.arguments.length) {
+            throw new IllegalArgumentException("Arguments must have distinct names");
+        }
+        this.clauses = new ClauseStore();
+    }
+
+    /**
+     * @return the number of arguments
+     */
+    public int size() {
+        return this.arguments.length;
+    }
+
+    /**
+     * @param id some id
+     * @return the argument with the given id
+     */
+    public Argument getArgument(int id) {
+        return this.arguments[id];
+    }
+
+    /**
+     * @param id some id
+     * @return the proposition representing the argument with the given id
+     */
+    public Proposition getProposition(int id) {
+        return this.propositions[id];
+    }
+
+    /**
+     * @param id some id
+     * @return the negated proposition representing the argument with the given id
+     */
+    public Negation getNegation(int id) {
+        return this.negations[id];
+    }
+
+    /**
+     * @param arg some argument
+     * @return the id of arg
+     */
+    public int getId(Argument arg) {
+        return this.getId(arg.getName());
+    }
+
+    /**
+     * @param atom a proposition representing some argument
+     * @return the id of the represented argument
+     */
+    public int getId(Proposition atom) {
+        return this.getId(atom.getName());
+    }
+
+    private int getId(String name) {
+        Integer id = this.ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown argument: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * @return the store of all clauses over the ids of this index
+     */
+    public ClauseStore getClauseStore() {
+        return this.clauses;
+    }
+
+    /**
+     * @param arg some argument
+     * @return true if arg is part of this index
+     */
+    public boolean contains(Argument arg) {
+        return this.ids.containsKey(arg.getName());
+    }
+
+    /**
+     * @return all arguments ordered by their id
+     */
+    public List<Argument> getArguments() {
+        return Collections.unmodifiableList(Arrays.asList(this.arguments));
+    }
+
+    /**
+     * @param args some arguments
+     * @return the bitset of the ids of the given arguments
+     */
+    public BitSet toBitSet(Collection<Argument> args) {
+        BitSet bits = new BitSet(this.size());
+        for (Argument a: args) {
+            bits.set(this.getId(a));
+        }
+        return bits;
+    }
+}
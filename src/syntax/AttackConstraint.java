@@ -1,8 +1,95 @@
 package syntax;
 
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.logics.pl.syntax.AssociativePlFormula;
 
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Interface for the acceptance condition of a single argument
+ * Every constraint produced by the supported semantics is a conjunction of negated attackers and of disjunctions of
+ * attackers, so all representations answer the same queries on this form. Attackers are given by their id in the
+ * argument index of the constraint.
+ *
+ * @author Lars Bengel
+ */
 public interface AttackConstraint<T> {
+    /**
+     * @return the constraint in the representation of the implementation
+     */
     public T getCondition();
+
     public Argument getArgument();
+
+    /**
+     * add the constraint for the argument wrt. the given labeling to this constraint
+     * @param input some input labeling
+     */
+    public void add(Input input);
+
+    /**
+     * add the constraint for the argument wrt. a labeling that is given by its semantics, the status of the argument
+     * and the templates of the labeling, so that the labeling itself need not exist
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling wrt. the index of this constraint
+     */
+    public void add(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates);
+
+    /**
+     * check whether the constraint for the argument wrt. the given labeling is already implied by this constraint
+     * an unsatisfiable constraint implies everything
+     * @param input some input labeling
+     * @return true if adding the labeling would not change this constraint
+     */
+    public boolean entails(Input input);
+
+    /**
+     * see entails(Input) and add(Semantics, ArgumentStatus, ConstraintTemplates)
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling wrt. the index of this constraint
+     * @return true if adding the labeling would not change this constraint
+     */
+    public boolean entails(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates);
+
+    /**
+     * @return true if exactly one set of attackers satisfies this constraint
+     */
+    public boolean isDetermined();
+
+    /**
+     * @return true if no set of attackers satisfies this constraint
+     */
+    public boolean isUnsatisfiable();
+
+    /**
+     * @return some set of attackers that satisfies this constraint, null if there is none
+     */
+    public BitSet getWitness();
+
+    /**
+     * @return the exact number of partial attack relations of the argument, including all optional attackers
+     */
+    public BigInteger countModels();
+
+    /**
+     * @return the ids of all arguments that must not attack the argument
+     */
+    public BitSet getForbiddenAttackers();
+
+    /**
+     * @return the positive clauses of the constraint, at least one argument of each clause must attack the argument
+     */
+    public Collection<BitSet> getPositiveClauses();
+
+    /**
+     * @param arguments the set of all arguments
+     * @return the disjunction of all arguments not occurring in the constraint
+     */
+    public AssociativePlFormula getOptionalCondition(Collection<Argument> arguments);
 }
@@ -0,0 +1,319 @@
+package syntax;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.logics.pl.syntax.*;
+import util.IndexSet;
+import util.ModelComputation;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Implementation of the attack constraints using bitsets over the arguments instead of formulas
+ * Every constraint produced by the supported semantics is a conjunction of negated attackers and of disjunctions of
+ * positive attackers. Thus, we store
+ * - the set of forbidden attackers, i.e. all b with !b in the condition
+ * - the set of clauses, each clause is a set of attackers of which at least one must attack the argument
+ * Arguments are identified by their id in the given argument index
+ *
+ * @author Lars Bengel
+ */
+public class BitSetAttackConstraint implements AttackConstraint<AssociativePlFormula> {
+
+    /** the argument this constraint is for */
+    private Argument argument;
+    /** the index of all arguments */
+    private ArgumentIndex index;
+
+    /** the set of arguments that must not attack the argument */
+    private IndexSet forbidden;
+    /** the set of clauses, at least one argument of each clause must attack the argument */
+    private Collection<IndexSet> clauses;
+
+    /** per-thread scratch set for the forced attackers */
+    private static final ThreadLocal<BitSet> FORCED = ThreadLocal.withInitial(BitSet::new);
+
+    /**
+     * initialize empty constraint for the given argument, i.e. any incoming attack is optional
+     * @param arg some argument
+     * @param index the index of all arguments
+     */
+    public BitSetAttackConstraint(Argument arg, ArgumentIndex index) {
+        this.argument = arg;
+        this.index = index;
+        this.forbidden = IndexSet.empty(index.size());
+        this.clauses = new HashSet<>();
+    }
+
+    /**
+     * compute the constraint for the given argument with respect to the given input labeling
+     * @param arg some argument
+     * @param input some input labeling
+     * @param index the index of all arguments
+     */
+    public BitSetAttackConstraint(Argument arg, Input input, ArgumentIndex index) {
+        this(arg, index);
+        this.computeConditionForArgument(index.getId(arg), input);
+    }
+
+    /**
+     * compute constraint by combining two constraints for the same argument
+     * @param condition1 some constraint for the argument a
+     * @param condition2 some constraint for the argument a
+     */
+    public BitSetAttackConstraint(BitSetAttackConstraint condition1, BitSetAttackConstraint condition2) {
+        if (!condition1.getArgument().equals(condition2.getArgument())) {
+            throw new IllegalArgumentException("Should not happen");
+        }
+        this.argument = condition1.getArgument();
+        this.index = condition1.index;
+        this.forbidden = condition1.forbidden.union(condition2.forbidden);
+        this.clauses = new HashSet<>(condition1.clauses);
+        this.clauses.addAll(condition2.clauses);
+    }
+
+    /**
+     * return the constraint as a formula, i.e. the conjunction of all negated forbidden attackers and all clauses
+     * @return the condition
+     */
+    public AssociativePlFormula getCondition() {
+        Collection<PlFormula> formulas = new ArrayList<>();
+        for (int b = this.forbidden.next(0); b >= 0; b = this.forbidden.next(b + 1)) {
+            formulas.add(this.index.getNegation(b));
+        }
+        for (IndexSet clause: this.clauses) {
+            Collection<PlFormula> attackers = new ArrayList<>();
+            for (int b = clause.next(0); b >= 0; b = clause.next(b + 1)) {
+                attackers.add(this.index.getProposition(b));
+            }
+            formulas.add(new Disjunction(attackers));
+        }
+        return new Conjunction(formulas);
+    }
+
+    public Argument getArgument() {
+        return this.argument;
+    }
+
+    /**
+     * add the forbidden attackers and clauses for the argument wrt. the given labeling to this constraint
+     * the sets of the labeling are shared, not copied
+     * @param input some input labeling
+     */
+    public void add(Input input) {
+        this.computeConditionForArgument(this.index.getId(this.argument), input);
+    }
+
+    /**
+     * @return the set of arguments that must not attack the argument
+     */
+    public IndexSet getForbidden() {
+        return this.forbidden;
+    }
+
+    /**
+     * @return the ids of all arguments that must not attack the argument
+     */
+    public BitSet getForbiddenAttackers() {
+        return this.forbidden.toBitSet();
+    }
+
+    /**
+     * @return the clauses of the constraint, at least one argument of each clause must attack the argument
+     */
+    public Collection<IndexSet> getClauses() {
+        return this.clauses;
+    }
+
+    /**
+     * check whether there is some set of attackers satisfying this constraint
+     * that is the case iff every clause contains at least one argument that is not forbidden
+     * @return true if the constraint is satisfiable
+     */
+    public boolean isSatisfiable() {
+        for (IndexSet clause: this.clauses) {
+            if (clause.isSubsetOf(this.forbidden)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if no set of attackers satisfies this constraint
+     */
+    public boolean isUnsatisfiable() {
+        return !this.isSatisfiable();
+    }
+
+    /**
+     * a negated attacker is implied iff it is forbidden already and a clause iff it contains the non-forbidden
+     * arguments of some clause
+     * @param input some input labeling
+     * @return true if adding the labeling would not change the models of this constraint
+     */
+    public boolean entails(Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[this.index.getId(this.argument)];
+        return status == null || this.entails(input.getSemantics(), status, input.getTemplates(this.index));
+    }
+
+    /**
+     * see entails(Input)
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if adding the labeling would not change the models of this constraint
+     */
+    public boolean entails(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        if (this.isUnsatisfiable()) {
+            return true;
+        }
+        if (!templates.getForbidden(semantics, status).isSubsetOf(this.forbidden)) {
+            return false;
+        }
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required == null || this.clauses.contains(required)) {
+            return true;
+        }
+        for (IndexSet clause: this.clauses) {
+            if (this.isReducedSubset(clause, required)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the attackers are determined iff every argument is either forbidden or the only non-forbidden argument of some
+     * clause, the forced arguments are collected in a per-thread scratch set
+     * @return true if exactly one set of attackers satisfies this constraint
+     */
+    public boolean isDetermined() {
+        int numForbidden = this.forbidden.size();
+        if (numForbidden + this.clauses.size() < this.index.size() || this.isUnsatisfiable()) {
+            return false;
+        }
+        BitSet forced = FORCED.get();
+        for (IndexSet clause: this.clauses) {
+            int single = -1;
+            for (int b = clause.next(0); b >= 0; b = clause.next(b + 1)) {
+                if (!this.forbidden.contains(b)) {
+                    if (single >= 0) {
+                        single = -1;
+                        break;
+                    }
+                    single = b;
+                }
+            }
+            if (single >= 0) {
+                forced.set(single);
+            }
+        }
+        int numForced = forced.cardinality();
+        forced.clear();
+        return numForbidden + numForced == this.index.size();
+    }
+
+    /**
+     * @param clause some clause
+     * @param attackers ids of some arguments
+     * @return true if every non-forbidden argument of the clause is one of the given attackers
+     */
+    private boolean isReducedSubset(IndexSet clause, IndexSet attackers) {
+        for (int b = clause.next(0); b >= 0; b = clause.next(b + 1)) {
+            if (!attackers.contains(b) && !this.forbidden.contains(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * compute a set of attackers that satisfies this constraint, i.e. all non-forbidden arguments of each clause
+     * @return the indices of the attackers, null if the constraint is unsatisfiable
+     */
+    public BitSet getWitness() {
+        BitSet attackers = new BitSet(this.index.size());
+        for (IndexSet clause: this.clauses) {
+            BitSet allowed = clause.minus(this.forbidden).toBitSet();
+            if (allowed.isEmpty()) {
+                return null;
+            }
+            attackers.or(allowed);
+        }
+        return attackers;
+    }
+
+    /**
+     * @return the clauses of the constraint as bitsets of argument ids
+     */
+    public Collection<BitSet> getPositiveClauses() {
+        Collection<BitSet> positiveClauses = new ArrayList<>(this.clauses.size());
+        for (IndexSet clause: this.clauses) {
+            positiveClauses.add(clause.toBitSet());
+        }
+        return positiveClauses;
+    }
+
+    /**
+     * count the sets of attackers satisfying this constraint, including all optional attackers
+     * @return the exact number of partial attack relations of the argument
+     */
+    public BigInteger countModels() {
+        return ModelComputation.countModelsOfClauses(this.forbidden.toBitSet(), this.getPositiveClauses(), this.index.size());
+    }
+
+    /**
+     * compute the optional condition for this argument, i.e. the disjunction of all arguments not occurring in the constraint
+     * @param arguments the set of all arguments
+     * @return the optional condition of this argument
+     */
+    public AssociativePlFormula getOptionalCondition(Collection<Argument> arguments) {
+        BitSet occurring = this.forbidden.toBitSet();
+        for (IndexSet clause: this.clauses) {
+            occurring.or(clause.toBitSet());
+        }
+        Collection<PlFormula> optionalAtoms = new ArrayList<>();
+        for (Argument a: arguments) {
+            int id = this.index.getId(a);
+            if (!occurring.get(id)) {
+                optionalAtoms.add(this.index.getProposition(id));
+            }
+        }
+        return new Disjunction(optionalAtoms);
+    }
+
+    /**
+     * compute the forbidden attackers and clauses with respect to the labeling and its semantics for the given argument
+     * @param arg id of some argument
+     * @param input some input labeling
+     */
+    private void computeConditionForArgument(int arg, Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[arg];
+        if (status != null) {
+            this.add(input.getSemantics(), status, input.getTemplates(this.index));
+        }
+    }
+
+    /**
+     * add the forbidden attackers and clauses for the argument wrt. a labeling to this constraint, the templates must
+     * refer to the index of this constraint
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     */
+    public void add(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        this.forbidden = this.forbidden.union(templates.getForbidden(semantics, status));
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required != null) {
+            this.clauses.add(required);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return argument + ":\t\t" + this.getCondition();
+    }
+}
@@ -1,25 +1,78 @@
 package syntax;
 
 import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.logics.pl.syntax.*;
+import util.ClauseStore;
+import util.IndexSet;
+import util.IntHashSet;
+import util.ModelComputation;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.math.BigInteger;
+import java.util.*;
 
+/**
+ * Attack constraint of an argument as a set of clauses
+ * The clauses are hash-consed in the clause store of the argument index, so that identical clauses of different
+ * labelings and arguments are only stored once and the constraint only holds the ids of its clauses. The constraint
+ * keeps a reference to each of its clauses and releases it as soon as the clause is reduced, satisfied or subsumed, so
+ * the store only keeps the clauses of the current constraints.
+ * Each clause is either a negated attacker or a disjunction of attackers. The formula representation is only
+ * created when requested via getCondition.
+ * Clauses are simplified as they arrive: negated attackers are kept as forbidden attackers and removed from all
+ * clauses, a clause that is reduced to a single attacker makes it a forced attacker, clauses containing a forced
+ * attacker are dropped and so are clauses subsumed by another clause. Thus, the constraint only grows with new
+ * information and not with the number of labelings.
+ * A labeling can also be added in place via add(Input). The simplification iterates over snapshots of the clauses in
+ * per-thread scratch buffers, so apart from storing new clauses this does not allocate any memory.
+ *
+ * @author Lars Bengel
+ */
 public class ClausalAttackConstraint implements AttackConstraint<Collection<PlFormula>> {
     private Argument argument;
 
-    private Collection<PlFormula> clauses;
+    /** the ids of the clauses with at least two attackers in the clause store of the index */
+    private IntHashSet clauses;
+    /** the ids of the arguments that must not attack the argument */
+    private BitSet forbidden;
+    /** the ids of the arguments that must attack the argument */
+    private BitSet forced;
+    /** true if the clauses are contradictory */
+    private boolean unsatisfiable;
+
+    private ArgumentIndex index;
+
+    /** slot of the scratch buffer for the clauses while forbidding an attacker */
+    private static final int FORBIDDEN_SLOT = 0;
+    /** slot of the scratch buffer for the reduced literals of a new clause */
+    private static final int LITERALS_SLOT = 1;
+    /** slot of the scratch buffer for the clauses while adding a clause or forcing an attacker */
+    private static final int CLAUSES_SLOT = 2;
+    /** slot of the scratch buffer for the literals of the clause of a labeling */
+    private static final int REQUIRED_SLOT = 3;
+    /** per-thread scratch buffers, by slot, each nested loop uses its own slot */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[4][16]);
 
     public ClausalAttackConstraint(Argument arg) {
+        this(arg, (ArgumentIndex) null);
+    }
+
+    public ClausalAttackConstraint(Argument arg, ArgumentIndex index) {
         this.argument = arg;
-        this.clauses = new HashSet<>();
+        this.index = index;
+        this.clauses = new IntHashSet();
+        this.forbidden = new BitSet(index == null ? 0 : index.size());
+        this.forced = new BitSet(index == null ? 0 : index.size());
     }
 
     public ClausalAttackConstraint(Argument arg, Input input) {
-        this.argument = arg;
-        this.clauses = this.getConditionForArgument(arg, input);
+        this(arg, input, input.getIndex());
+    }
+
+    public ClausalAttackConstraint(Argument arg, Input input, ArgumentIndex index) {
+        this(arg, index);
+        this.computeConditionForArgument(index.getId(arg), input);
     }
 
     public ClausalAttackConstraint(ClausalAttackConstraint condition1, ClausalAttackConstraint condition2) {
@@ -27,122 +80,501 @@ public class ClausalAttackConstraint implements AttackConstraint<Collection<PlFo
             throw new IllegalArgumentException("Should not happen");
         }
         this.argument = condition1.getArgument();
-        this.clauses = new HashSet<>();
-        this.clauses.addAll(condition1.getCondition());
-        this.clauses.addAll(condition2.getCondition());
+        this.index = condition1.index;
+        this.clauses = new IntHashSet(condition1.clauses);
+        for (int s = this.clauses.nextSlot(0); s >= 0; s = this.clauses.nextSlot(s + 1)) {
+            this.index.getClauseStore().retain(this.clauses.getSlot(s));
+        }
+        this.forbidden = (BitSet) condition1.forbidden.clone();
+        this.forced = (BitSet) condition1.forced.clone();
+        this.unsatisfiable = condition1.unsatisfiable;
+        this.add(condition2);
     }
 
-    public Collection<PlFormula> getCondition() {
-        return this.clauses;
+    /**
+     * add the clauses of the given constraint to this constraint and simplify the result
+     * @param condition some constraint for the same argument
+     */
+    public void add(ClausalAttackConstraint condition) {
+        if (condition.getArgument() != this.argument) {
+            throw new IllegalArgumentException("Should not happen");
+        }
+        if (condition.isEmpty()) {
+            return;
+        }
+        if (this.index == null) {
+            this.index = condition.index;
+        } else if (this.index != condition.index) {
+            throw new IllegalArgumentException("Constraints refer to different argument indices");
+        }
+        if (condition.unsatisfiable) {
+            this.unsatisfiable = true;
+        }
+        for (int b = condition.forbidden.nextSetBit(0); b >= 0; b = condition.forbidden.nextSetBit(b + 1)) {
+            this.addForbidden(b);
+        }
+        for (int b = condition.forced.nextSetBit(0); b >= 0; b = condition.forced.nextSetBit(b + 1)) {
+            this.addForced(b);
+        }
+        ClauseStore store = this.index.getClauseStore();
+        for (int clause: condition.clauses.toArray()) {
+            int[] literals = store.getLiterals(clause);
+            this.addPositiveClause(clause, literals, literals.length);
+        }
     }
 
-    public Argument getArgument() {
-        return this.argument;
+    /**
+     * add the clauses for the argument of this constraint wrt. the given labeling in place and simplify the result
+     * @param input some input labeling
+     */
+    public void add(Input input) {
+        if (this.index == null) {
+            this.index = input.getIndex();
+        }
+        this.computeConditionForArgument(this.index.getId(this.argument), input);
     }
 
-    private Collection<PlFormula> getConditionForArgument(Argument arg, Input input) {
-        return switch (input.getSemantics()) {
-            case CF -> this.getConditionForArgumentCF(arg, input);
-            case ADM -> this.getConditionForArgumentADM(arg, input);
-            case CO -> this.getConditionForArgumentCO(arg, input);
-            case ST -> this.getConditionForArgumentST(arg, input);
-            default -> throw new IllegalArgumentException("Unsupported Semantics");
-        };
+    /**
+     * forbid the given attacker and remove it from all clauses
+     * @param b id of some argument
+     */
+    private void addForbidden(int b) {
+        if (this.unsatisfiable || this.forbidden.get(b)) {
+            return;
+        }
+        this.forbidden.set(b);
+        if (this.forced.get(b)) {
+            this.unsatisfiable = true;
+            return;
+        }
+        this.removeForbidden();
     }
 
-    private Collection<PlFormula> getConditionForArgumentCF(Argument arg, Input input) {
-        Collection<PlFormula> formula = new HashSet<>();
-        switch (input.get(arg)) {
-            case UNDECIDED:
-            case IN:
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
+    /**
+     * forbid the given attackers at once and then remove them from all clauses, so each clause is reduced and stored
+     * once per labeling and not once per forbidden attacker
+     * @param attackers ids of some arguments
+     */
+    private void addForbidden(IndexSet attackers) {
+        if (this.unsatisfiable) {
+            return;
+        }
+        boolean changed = false;
+        for (int b = attackers.next(0); b >= 0; b = attackers.next(b + 1)) {
+            if (!this.forbidden.get(b)) {
+                this.forbidden.set(b);
+                changed = true;
+                if (this.forced.get(b)) {
+                    this.unsatisfiable = true;
+                    return;
                 }
-                formula.add(new Disjunction(poss_attackers));
-                break;
+            }
+        }
+        if (changed) {
+            this.removeForbidden();
         }
-        return formula;
     }
 
-    private Collection<PlFormula> getConditionForArgumentADM(Argument arg, Input input) {
-        Collection<PlFormula> formula = new HashSet<>();
-        switch (input.get(arg)) {
-            case IN:
-                // an IN argument can not be attacked by another IN argument or a UNDECIDED argument (i.e. then it would not be defended)
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
+    /**
+     * replace every clause that contains a forbidden attacker by its reduction, the stored clauses contained no
+     * forbidden attacker before, so only the clauses with a new forbidden attacker are affected
+     */
+    private void removeForbidden() {
+        ClauseStore store = this.index.getClauseStore();
+        int[] snapshot = scratch(FORBIDDEN_SLOT, this.clauses.size());
+        int numClauses = this.clauses.toArray(snapshot);
+        for (int i = 0; i < numClauses; i++) {
+            int clause = snapshot[i];
+            if (!this.clauses.contains(clause)) {
+                continue;
+            }
+            int[] literals = store.getLiterals(clause);
+            for (int literal: literals) {
+                if (this.forbidden.get(literal - 1)) {
+                    this.clauses.remove(clause);
+                    this.addPositiveClause(-1, literals, literals.length);
+                    // released only now, the literals belong to the stored clause
+                    store.release(clause);
+                    break;
                 }
-                formula.add(new Disjunction(poss_attackers));
-                break;
-            case UNDECIDED:
-                // an UNDECIDED argument can not be attacked by an IN argument (i.e. then it would be OUT)
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                break;
+            }
         }
-        return formula;
     }
 
-    private Collection<PlFormula> getConditionForArgumentCO(Argument arg, Input input) {
-        Collection<PlFormula> formula = new HashSet<>();
-        switch (input.get(arg)) {
-            case IN:
-                // an IN argument can not be attacked by another IN argument or a UNDECIDED argument (i.e. then it would not be defended)
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
-                }
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
-                }
-                formula.add(new Disjunction(poss_attackers));
-                break;
-            case UNDECIDED:
-                // an UNDECIDED argument can not be attacked by an IN argument (i.e. then it would be OUT)
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    formula.add(new Negation(new Proposition(b.getName())));
+    /**
+     * force the given attacker and drop all clauses that are satisfied by it
+     * @param b id of some argument
+     */
+    private void addForced(int b) {
+        if (this.unsatisfiable || this.forced.get(b)) {
+            return;
+        }
+        this.forced.set(b);
+        if (this.forbidden.get(b)) {
+            this.unsatisfiable = true;
+            return;
+        }
+        ClauseStore store = this.index.getClauseStore();
+        int[] snapshot = scratch(CLAUSES_SLOT, this.clauses.size());
+        int numClauses = this.clauses.toArray(snapshot);
+        for (int i = 0; i < numClauses; i++) {
+            int clause = snapshot[i];
+            if (Arrays.binarySearch(store.getLiterals(clause), b + 1) >= 0) {
+                this.clauses.remove(clause);
+                store.release(clause);
+            }
+        }
+    }
+
+    /**
+     * add a disjunction of attackers, reduced by the forbidden attackers, unless it is satisfied by a forced attacker or
+     * subsumed by another clause. Clauses subsumed by the new clause are dropped
+     * @param clause id of the clause in the clause store of the index, -1 if it is not stored
+     * @param literals the sorted literals of the clause
+     * @param count the number of literals
+     */
+    private void addPositiveClause(int clause, int[] literals, int count) {
+        if (this.unsatisfiable) {
+            return;
+        }
+        int length = 0;
+        for (int j = 0; j < count; j++) {
+            int literal = literals[j];
+            if (this.forced.get(literal - 1)) {
+                return;
+            }
+            if (!this.forbidden.get(literal - 1)) {
+                length++;
+            }
+        }
+        if (length < count) {
+            int[] reduced = scratch(LITERALS_SLOT, length);
+            int i = 0;
+            for (int j = 0; j < count; j++) {
+                if (!this.forbidden.get(literals[j] - 1)) {
+                    reduced[i++] = literals[j];
                 }
-                Collection<PlFormula> und_arguments = new HashSet<>();
-                for (Argument c: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    und_arguments.add(new Proposition(c.getName()));
+            }
+            literals = reduced;
+            clause = -1;
+        }
+        if (length == 0) {
+            this.unsatisfiable = true;
+            return;
+        }
+        if (length == 1) {
+            this.addForced(literals[0] - 1);
+            return;
+        }
+        ClauseStore store = this.index.getClauseStore();
+        int[] snapshot = scratch(CLAUSES_SLOT, this.clauses.size());
+        int numClauses = this.clauses.toArray(snapshot);
+        for (int i = 0; i < numClauses; i++) {
+            int[] otherLiterals = store.getLiterals(snapshot[i]);
+            if (isSubset(otherLiterals, otherLiterals.length, literals, length)) {
+                return;
+            }
+            if (isSubset(literals, length, otherLiterals, otherLiterals.length)) {
+                this.clauses.remove(snapshot[i]);
+                store.release(snapshot[i]);
+            }
+        }
+        // only a new clause that is actually kept is copied out of the scratch buffer
+        if (clause >= 0) {
+            store.retain(clause);
+        } else {
+            clause = store.intern(Arrays.copyOf(literals, length));
+        }
+        this.clauses.add(clause);
+    }
+
+    /**
+     * @param a some sorted literals
+     * @param lengthA the number of literals of a
+     * @param b some sorted literals
+     * @param lengthB the number of literals of b
+     * @return true if every literal of a is contained in b
+     */
+    private static boolean isSubset(int[] a, int lengthA, int[] b, int lengthB) {
+        if (lengthA > lengthB) {
+            return false;
+        }
+        int j = 0;
+        for (int i = 0; i < lengthA; i++) {
+            while (j < lengthB && b[j] < a[i]) {
+                j++;
+            }
+            if (j == lengthB || b[j] != a[i]) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+
+    /**
+     * @param slot some slot
+     * @param length the required length
+     * @return the scratch buffer of the current thread for the given slot with at least the given length
+     */
+    private static int[] scratch(int slot, int length) {
+        int[][] buffers = SCRATCH.get();
+        if (buffers[slot].length < length) {
+            buffers[slot] = new int[Math.max(length, 2 * buffers[slot].length)];
+        }
+        return buffers[slot];
+    }
+
+    /**
+     * @return true if this constraint has no clauses at all
+     */
+    private boolean isEmpty() {
+        return !this.unsatisfiable && this.clauses.isEmpty() && this.forbidden.isEmpty() && this.forced.isEmpty();
+    }
+
+    /**
+     * a negated attacker is implied iff it is forbidden already and a clause iff it contains a forced attacker or the
+     * attackers of some clause
+     * @param input some input labeling
+     * @return true if adding the labeling would not change this constraint
+     */
+    public boolean entails(Input input) {
+        if (this.index == null) {
+            return false;
+        }
+        ArgumentStatus status = input.getStatuses(this.index)[this.index.getId(this.argument)];
+        return status == null || this.entails(input.getSemantics(), status, input.getTemplates(this.index));
+    }
+
+    /**
+     * see entails(Input)
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if adding the labeling would not change this constraint
+     */
+    public boolean entails(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        if (this.unsatisfiable) {
+            return true;
+        }
+        IndexSet forbidden = templates.getForbidden(semantics, status);
+        for (int b = forbidden.next(0); b >= 0; b = forbidden.next(b + 1)) {
+            if (!this.forbidden.get(b)) {
+                return false;
+            }
+        }
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required == null) {
+            return true;
+        }
+        for (int b = required.next(0); b >= 0; b = required.next(b + 1)) {
+            if (this.forced.get(b)) {
+                return true;
+            }
+        }
+        // the clauses are only read, so they are iterated in place instead of a snapshot in a scratch buffer
+        ClauseStore store = this.index.getClauseStore();
+        for (int s = this.clauses.nextSlot(0); s >= 0; s = this.clauses.nextSlot(s + 1)) {
+            boolean subsumed = true;
+            for (int literal: store.getLiterals(this.clauses.getSlot(s))) {
+                if (!required.contains(literal - 1)) {
+                    subsumed = false;
+                    break;
                 }
-                AssociativePlFormula sub_formula = new Disjunction(und_arguments);
-                formula.add(sub_formula);
-                break;
+            }
+            if (subsumed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * forced attackers drop all clauses containing them, so the attackers are determined iff every argument is either
+     * forbidden or forced
+     * @return true if exactly one set of attackers satisfies this constraint
+     */
+    public boolean isDetermined() {
+        return !this.unsatisfiable && this.forbidden.cardinality() + this.forced.cardinality() == this.size();
+    }
+
+    /**
+     * @return true if no set of attackers satisfies this constraint
+     */
+    public boolean isUnsatisfiable() {
+        return this.unsatisfiable;
+    }
+
+    /**
+     * compute a set of attackers satisfying this constraint
+     * the clauses are negated attackers and disjunctions of attackers, so the witness is computed in linear time
+     * @return the ids of the attackers, null if the constraint is unsatisfiable
+     */
+    public BitSet getWitness() {
+        BitSet forbidden = new BitSet(this.size());
+        Collection<BitSet> positiveClauses = new ArrayList<>();
+        this.splitClauses(forbidden, positiveClauses);
+        return ModelComputation.getWitnessOfClauses(forbidden, positiveClauses);
+    }
+
+    /**
+     * @return the ids of all arguments that must not attack the argument, i.e. all negated literals
+     */
+    public BitSet getForbiddenAttackers() {
+        BitSet forbidden = new BitSet(this.size());
+        this.splitClauses(forbidden, new ArrayList<>());
+        return forbidden;
+    }
+
+    /**
+     * @return the ids of the arguments of each positive clause, at least one argument of each clause must attack the argument
+     */
+    public Collection<BitSet> getPositiveClauses() {
+        Collection<BitSet> positiveClauses = new ArrayList<>();
+        this.splitClauses(new BitSet(this.size()), positiveClauses);
+        return positiveClauses;
+    }
+
+    /**
+     * split the clauses into negated attackers and positive clauses
+     * @param forbidden the ids of all negated attackers are added to this set
+     * @param positiveClauses the ids of the attackers of each positive clause are added to this collection
+     */
+    private void splitClauses(BitSet forbidden, Collection<BitSet> positiveClauses) {
+        if (this.unsatisfiable) {
+            // the empty clause
+            positiveClauses.add(new BitSet());
+        }
+        forbidden.or(this.forbidden);
+        for (int b = this.forced.nextSetBit(0); b >= 0; b = this.forced.nextSetBit(b + 1)) {
+            BitSet attacker = new BitSet(this.size());
+            attacker.set(b);
+            positiveClauses.add(attacker);
+        }
+        if (this.clauses.isEmpty()) {
+            return;
+        }
+        ClauseStore store = this.index.getClauseStore();
+        for (int clause: this.clauses.toArray()) {
+            BitSet attackers = new BitSet(this.size());
+            for (int literal: store.getLiterals(clause)) {
+                attackers.set(literal - 1);
+            }
+            positiveClauses.add(attackers);
+        }
+    }
+
+    /**
+     * count the sets of attackers satisfying this constraint, including all optional attackers
+     * @return the exact number of partial attack relations of the argument
+     */
+    public BigInteger countModels() {
+        return ModelComputation.countModelsOfClauses(this.getForbiddenAttackers(), this.getPositiveClauses(), this.size());
+    }
+
+    /**
+     * compute the optional condition for this argument, i.e. the disjunction of all arguments not occurring in the constraint
+     * @param arguments the set of all arguments
+     * @return the optional condition of this argument
+     */
+    public AssociativePlFormula getOptionalCondition(Collection<Argument> arguments) {
+        BitSet occurring = this.getForbiddenAttackers();
+        for (BitSet clause: this.getPositiveClauses()) {
+            occurring.or(clause);
+        }
+        Collection<PlFormula> optionalAtoms = new ArrayList<>();
+        for (Argument a: arguments) {
+            int id = this.index.getId(a);
+            if (!occurring.get(id)) {
+                optionalAtoms.add(this.index.getProposition(id));
+            }
+        }
+        return new Disjunction(optionalAtoms);
+    }
+
+    /**
+     * @return the ids of the clauses with at least two attackers in the clause store of the index, in ascending order
+     */
+    public int[] getClauseIds() {
+        return this.clauses.toArray();
+    }
+
+    /**
+     * @return the number of clauses of this constraint after simplification, counting each forbidden and forced attacker
+     */
+    public int getNumberOfClauses() {
+        return this.clauses.size() + this.forbidden.cardinality() + this.forced.cardinality() + (this.unsatisfiable ? 1 : 0);
+    }
+
+    /**
+     * render the clauses as formulas, i.e. negated attackers and disjunctions of attackers
+     * a forced attacker is rendered as a disjunction with a single attacker and a contradiction as the empty disjunction
+     * @return the clauses of this constraint
+     */
+    public Collection<PlFormula> getCondition() {
+        Collection<PlFormula> formulas = new HashSet<>();
+        if (this.unsatisfiable) {
+            formulas.add(new Disjunction());
+        }
+        for (int b = this.forbidden.nextSetBit(0); b >= 0; b = this.forbidden.nextSetBit(b + 1)) {
+            formulas.add(this.index.getNegation(b));
         }
-        return formula;
+        for (int b = this.forced.nextSetBit(0); b >= 0; b = this.forced.nextSetBit(b + 1)) {
+            formulas.add(new Disjunction(List.of(this.index.getProposition(b))));
+        }
+        if (this.clauses.isEmpty()) {
+            return formulas;
+        }
+        ClauseStore store = this.index.getClauseStore();
+        for (int clause: this.clauses.toArray()) {
+            int[] literals = store.getLiterals(clause);
+            Collection<PlFormula> attackers = new ArrayList<>(literals.length);
+            for (int literal: literals) {
+                attackers.add(this.index.getProposition(literal - 1));
+            }
+            formulas.add(new Disjunction(attackers));
+        }
+        return formulas;
+    }
+
+    public Argument getArgument() {
+        return this.argument;
     }
 
-    private Collection<PlFormula> getConditionForArgumentST(Argument arg, Input input) {
-        if (!input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED).isEmpty())
-            throw new IllegalArgumentException("Labeling is not stable");
-        return getConditionForArgumentCF(arg, input);
+    private int size() {
+        return this.index == null ? 0 : this.index.size();
+    }
+
+    private void computeConditionForArgument(int arg, Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[arg];
+        if (status != null) {
+            this.add(input.getSemantics(), status, input.getTemplates(this.index));
+        }
+    }
+
+    /**
+     * add the clauses for the argument of this constraint wrt. a labeling in place and simplify the result, the
+     * templates must refer to the index of this constraint
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     */
+    public void add(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        this.addForbidden(templates.getForbidden(semantics, status));
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required != null) {
+            int[] literals = scratch(REQUIRED_SLOT, required.size());
+            int count = 0;
+            for (int b = required.next(0); b >= 0; b = required.next(b + 1)) {
+                literals[count++] = b + 1;
+            }
+            this.addPositiveClause(-1, literals, count);
+        }
     }
 
     @Override
     public String toString() {
-        return argument + ":\t\t" + clauses;
+        return argument + ":\t\t" + this.getCondition();
     }
 
 }
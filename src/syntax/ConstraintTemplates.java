@@ -0,0 +1,175 @@
+package syntax;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import util.IndexSet;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The parts of the attack constraints of a single labeling that only depend on the status class of an argument
+ * e.g. every OUT argument gets the clause of all IN arguments and every IN argument of a conflict-free labeling gets
+ * the negations of all IN arguments. Each part is built once, when it is first requested, and then shared by the
+ * constraints of all arguments of that status, so it must not be modified.
+ * The constraint of an argument wrt. a labeling consists of its forbidden attackers and at most one clause, both only
+ * depend on the semantics and the status of the argument. getRule is the only place where these rules are defined,
+ * all representations of the constraints use them via getForbidden and getRequired.
+ * Templates may be requested concurrently, each part is still built exactly once, so the parallel learners do not
+ * allocate more than the sequential one.
+ *
+ * @author Lars Bengel
+ */
+public class ConstraintTemplates {
+
+    /** part for the forbidden attackers as an IndexSet */
+    private static final int FORBIDDEN = 0;
+    /** part for the required attackers as an IndexSet, NOT_REQUIRED if there is no clause */
+    private static final int REQUIRED = 1;
+    /** number of parts of each rule */
+    private static final int NUMBER_OF_PARTS = 2;
+
+    /** marks a rule without a clause, so that the missing part is not built again on every request */
+    private static final Object NOT_REQUIRED = new Object();
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the ids of the arguments of each status, by the ordinal of the status */
+    private final int[][] partitions;
+    /** the parts of all rules, by the ordinal of the rule times NUMBER_OF_PARTS plus the part, null until requested */
+    private final AtomicReferenceArray<Object> parts;
+
+    /**
+     * the constraint of an argument wrt. a labeling, by which arguments must not attack it and which must attack it
+     */
+    private enum Rule {
+        /** no IN argument may attack it */
+        NOT_ATTACKED_BY_IN(null, ArgumentStatus.IN),
+        /** no IN or UNDECIDED argument may attack it */
+        NOT_ATTACKED_BY_IN_OR_UNDECIDED(null, ArgumentStatus.IN, ArgumentStatus.UNDECIDED),
+        /** some IN argument must attack it */
+        ATTACKED_BY_IN(ArgumentStatus.IN),
+        /** no IN argument may attack it, but some UNDECIDED argument must */
+        ATTACKED_BY_UNDECIDED_ONLY(ArgumentStatus.UNDECIDED, ArgumentStatus.IN);
+
+        /** the status of the arguments of which at least one must attack it, null if there is no such clause */
+        private final ArgumentStatus required;
+        /** the statuses of the arguments that must not attack it */
+        private final ArgumentStatus[] forbidden;
+
+        Rule(ArgumentStatus required, ArgumentStatus... forbidden) {
+            this.required = required;
+            this.forbidden = forbidden;
+        }
+    }
+
+    /**
+     * initialize the templates for a labeling
+     * @param index the index of all arguments
+     * @param partitions the ids of the arguments of each status, by the ordinal of the status
+     */
+    ConstraintTemplates(ArgumentIndex index, int[][] partitions) {
+        this.index = index;
+        this.partitions = partitions;
+        this.parts = new AtomicReferenceArray<>(Rule.values().length * NUMBER_OF_PARTS);
+    }
+
+    /**
+     * @param semantics the semantics of the labeling
+     * @param status the status of some argument
+     * @return the set of ids of all arguments that must not attack an argument with the given status
+     */
+    public IndexSet getForbidden(Semantics semantics, ArgumentStatus status) {
+        return (IndexSet) this.getPart(this.getRule(semantics, status), FORBIDDEN);
+    }
+
+    /**
+     * @param semantics the semantics of the labeling
+     * @param status the status of some argument
+     * @return the set of ids of the arguments of which at least one must attack an argument with the given status,
+     * null if there is no such clause
+     */
+    public IndexSet getRequired(Semantics semantics, ArgumentStatus status) {
+        Object required = this.getPart(this.getRule(semantics, status), REQUIRED);
+        return required == NOT_REQUIRED ? null : (IndexSet) required;
+    }
+
+    /**
+     * the constraints of the supported semantics for an argument with the given status
+     * @param semantics the semantics of the labeling
+     * @param status the status of some argument
+     * @return the rule for the argument
+     */
+    private Rule getRule(Semantics semantics, ArgumentStatus status) {
+        switch (semantics) {
+            case ST:
+                if (this.partitions[ArgumentStatus.UNDECIDED.ordinal()].length > 0) {
+                    throw new IllegalArgumentException("Labeling is not stable");
+                }
+                return status == ArgumentStatus.OUT ? Rule.ATTACKED_BY_IN : Rule.NOT_ATTACKED_BY_IN;
+            case CF:
+                // IN and UNDECIDED arguments can not be attacked by an IN argument, OUT arguments must be
+                return status == ArgumentStatus.OUT ? Rule.ATTACKED_BY_IN : Rule.NOT_ATTACKED_BY_IN;
+            case ADM:
+            case CO:
+                switch (status) {
+                    case IN:
+                        // an IN argument can not be attacked by another IN argument or a UNDECIDED argument (i.e. then it would not be defended)
+                        return Rule.NOT_ATTACKED_BY_IN_OR_UNDECIDED;
+                    case OUT:
+                        return Rule.ATTACKED_BY_IN;
+                    default:
+                        // an UNDECIDED argument can not be attacked by an IN argument (i.e. then it would be OUT)
+                        // for CO it must also be attacked by some UNDECIDED argument (i.e. otherwise it would be IN)
+                        return semantics == Semantics.CO ? Rule.ATTACKED_BY_UNDECIDED_ONLY : Rule.NOT_ATTACKED_BY_IN;
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported Semantics");
+        }
+    }
+
+    /**
+     * return the given part of the given rule, it is built when it is first requested
+     * @param rule some rule
+     * @param part either FORBIDDEN or REQUIRED
+     * @return the part
+     */
+    private Object getPart(Rule rule, int part) {
+        int slot = rule.ordinal() * NUMBER_OF_PARTS + part;
+        Object result = this.parts.get(slot);
+        if (result == null) {
+            synchronized (this) {
+                result = this.parts.get(slot);
+                if (result == null) {
+                    result = this.buildPart(rule, part);
+                    this.parts.set(slot, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Object buildPart(Rule rule, int part) {
+        if (part == FORBIDDEN) {
+            return this.toIndexSet(rule.forbidden);
+        }
+        return rule.required == null ? NOT_REQUIRED : this.toIndexSet(rule.required);
+    }
+
+    /**
+     * @param statuses some statuses
+     * @return the set of ids of all arguments with one of the given statuses
+     */
+    private IndexSet toIndexSet(ArgumentStatus... statuses) {
+        if (statuses.length == 1) {
+            return IndexSet.of(this.partitions[statuses[0].ordinal()], this.index.size());
+        }
+        BitSet bits = new BitSet(this.index.size());
+        for (ArgumentStatus status: statuses) {
+            for (int b: this.partitions[status.ordinal()]) {
+                bits.set(b);
+            }
+        }
+        return IndexSet.of(bits, this.index.size());
+    }
+}
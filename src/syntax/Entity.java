@@ -2,13 +2,17 @@
 package syntax;
 
 import org.tweetyproject.arg.dung.reasoner.AbstractExtensionReasoner;
-import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
 import org.tweetyproject.arg.dung.semantics.Extension;
 import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
+import util.LabelingComputation;
+import util.LabelingEnumerator;
+import util.LabelingVerifier;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * Class representing an entity with an underlying hidden argumentation framework. An agent can ask the entity for labelings
@@ -25,30 +29,52 @@ public class Entity {
 
     private List<Input> allInputs;
 
+    /** the supported semantics */
+    private static final List<Semantics> SEMANTICS = List.of(Semantics.CF, Semantics.ADM, Semantics.CO, Semantics.ST);
+
+    /** lazy enumerator of the remaining labelings for each semantics, null if all labelings are computed eagerly */
+    private Map<Semantics, LabelingEnumerator> enumerators;
+
     /**
      * initialize the entity with the given AF
      * @param theory some argumentation framework
      */
     public Entity(DungTheory theory) {
-        hiddenFramework = theory;
+        this(theory, false);
+    }
 
-        // compute the labelings for all supported semantics
+    /**
+     * initialize the entity with the given AF
+     * in lazy mode, labelings are only computed when they are requested, one at a time and separately per semantics.
+     * Then each labeling is given out at most once, no matter whether it is requested via getLabeling or getAnyLabeling
+     * @param theory some argumentation framework
+     * @param lazy whether the labelings should be computed lazily
+     */
+    public Entity(DungTheory theory, boolean lazy) {
+        hiddenFramework = theory;
         this.examples = new HashMap<>();
-        this.computeExamplesForSemantics(Semantics.CF);
-        this.computeExamplesForSemantics(Semantics.ADM);
-        this.computeExamplesForSemantics(Semantics.CO);
-        this.computeExamplesForSemantics(Semantics.ST);
 
-        this.allInputs = new LinkedList<>();
-        this.allInputs.addAll(this.getAllLabelings(Semantics.CF));
-        this.allInputs.addAll(this.getAllLabelings(Semantics.ADM));
-        this.allInputs.addAll(this.getAllLabelings(Semantics.CO));
-        this.allInputs.addAll(this.getAllLabelings(Semantics.ST));
-
-        //System.out.println("CF: " + examples.get(Semantics.CF).size());
-        //System.out.println("ADM: " + examples.get(Semantics.ADM).size());
-        //System.out.println("CO: " + examples.get(Semantics.CO).size());
-        //System.out.println("ST: " + examples.get(Semantics.ST).size());
+        if (lazy) {
+            this.enumerators = new HashMap<>();
+            for (Semantics sem: SEMANTICS) {
+                this.examples.put(sem, new LinkedList<>());
+                this.enumerators.put(sem, new LabelingEnumerator(theory, sem));
+            }
+            return;
+        }
+        this.computeExamples(SEMANTICS);
+    }
+
+    /**
+     * initialize the entity with the given AF and eagerly compute the labelings only for the given semantics
+     * labelings for any other semantics can not be requested from this entity
+     * @param theory some argumentation framework
+     * @param semantics some of the semantics CF, ADM, CO and ST
+     */
+    public Entity(DungTheory theory, Collection<Semantics> semantics) {
+        hiddenFramework = theory;
+        this.examples = new HashMap<>();
+        this.computeExamples(semantics);
     }
 
     public Entity(DungTheory theory, List<Input> inputs) {
@@ -56,28 +82,105 @@ public class Entity {
         allInputs = inputs;
     }
 
+    /**
+     * helper method to compute all labelings for the given semantics
+     * Since every stable labeling is complete and every complete labeling is admissible, the complete labelings are
+     * obtained by filtering the admissible ones and the stable labelings by filtering the complete ones.
+     * The conflict-free labelings are enumerated concurrently with the bitset-based search of LabelingComputation
+     * @param semantics some of the semantics CF, ADM, CO and ST
+     */
+    private void computeExamples(Collection<Semantics> semantics) {
+        for (Semantics sem: semantics) {
+            if (!SEMANTICS.contains(sem)) {
+                throw new IllegalArgumentException("Unsupported semantics: " + sem);
+            }
+        }
+        CompletableFuture<List<Input>> cfExamples = null;
+        if (semantics.contains(Semantics.CF)) {
+            cfExamples = CompletableFuture.supplyAsync(() -> LabelingComputation.streamConflictFreeSets(this.hiddenFramework, true)
+                    .map(ext -> new Input(this.hiddenFramework, ext, Semantics.CF))
+                    .collect(Collectors.toCollection(LinkedList::new)));
+        }
+
+        if (semantics.contains(Semantics.ADM) || semantics.contains(Semantics.CO) || semantics.contains(Semantics.ST)) {
+            LabelingVerifier verifier = new LabelingVerifier(this.hiddenFramework);
+            List<Input> admExamples = this.computeExamplesForSemantics(Semantics.ADM);
+            if (semantics.contains(Semantics.ADM)) {
+                this.examples.put(Semantics.ADM, admExamples);
+            }
+            if (semantics.contains(Semantics.CO) || semantics.contains(Semantics.ST)) {
+                List<Input> coExamples = this.filterExamples(admExamples, Semantics.CO, verifier);
+                if (semantics.contains(Semantics.CO)) {
+                    this.examples.put(Semantics.CO, coExamples);
+                }
+                if (semantics.contains(Semantics.ST)) {
+                    this.examples.put(Semantics.ST, this.filterExamples(coExamples, Semantics.ST, verifier));
+                }
+            }
+        }
+        if (cfExamples != null) {
+            this.examples.put(Semantics.CF, cfExamples.join());
+        }
+
+        this.allInputs = new LinkedList<>();
+        for (Semantics sem: SEMANTICS) {
+            if (this.examples.containsKey(sem)) {
+                this.allInputs.addAll(this.examples.get(sem));
+            }
+        }
+    }
+
     /**
      * helper method to compute all labelings for the given semantics
      * @param sem some semantics
+     * @return all labelings of the hidden AF wrt. sem
      */
-    private void computeExamplesForSemantics(Semantics sem) {
+    private List<Input> computeExamplesForSemantics(Semantics sem) {
         Collection<Extension> exts = AbstractExtensionReasoner.getSimpleReasonerForSemantics(sem).getModels(this.hiddenFramework);
         List<Input> examples_sem = new LinkedList<>();
         for (Extension ext: exts) {
             Input ex = new Input(this.hiddenFramework, ext, sem);
             examples_sem.add(ex);
         }
-        this.examples.put(sem, examples_sem);
+        return examples_sem;
+    }
+
+    /**
+     * helper method to compute the labelings for a narrower semantics from the labelings of a wider semantics
+     * the labeling of an extension does not depend on the semantics, so only the validity has to be checked
+     * @param examples all labelings of the hidden AF wrt. some wider semantics
+     * @param sem some semantics
+     * @param verifier verifier for the hidden AF
+     * @return all given labelings that are valid wrt. sem
+     */
+    private List<Input> filterExamples(List<Input> examples, Semantics sem, LabelingVerifier verifier) {
+        return examples.parallelStream().map(input -> {
+            Input ex = new Input();
+            ex.putAll(input);
+            ex.setSemantics(sem);
+            return ex;
+        }).filter(ex -> verifier.verify(ex) == null).collect(Collectors.toCollection(LinkedList::new));
     }
 
     /**
      * Ask for a random labeling w.r.t. the given semantics
      * The labeling is also removed from the internal storage so it can ot be given out again
+     * In lazy mode, the next labeling found by the enumerator is returned instead
      * @param sem a semantics
      * @return a labeling
      */
     public Input getLabeling(Semantics sem) {
         List<Input> examplesSem = this.examples.get(sem);
+        if (examplesSem == null) {
+            throw new IllegalArgumentException("Labelings for semantics " + sem.abbreviation() + " have not been computed");
+        }
+        if (this.enumerators != null && examplesSem.isEmpty()) {
+            LabelingEnumerator enumerator = this.enumerators.get(sem);
+            if (!enumerator.hasNext()) {
+                throw new IllegalArgumentException("No labelings left for semantics " + sem.abbreviation());
+            }
+            return new Input(this.hiddenFramework, enumerator.next(), sem);
+        }
         Random rnd = new Random(0);
         int id = rnd.nextInt(examplesSem.size());
 
@@ -86,6 +189,19 @@ public class Entity {
 
     public Input getAnyLabeling() {
         Random rnd = new Random();
+        if (this.enumerators != null) {
+            // pick a random semantics that has labelings left
+            List<Semantics> remaining = new ArrayList<>(SEMANTICS);
+            while (!remaining.isEmpty()) {
+                Semantics sem = remaining.get(rnd.nextInt(remaining.size()));
+                try {
+                    return this.getLabeling(sem);
+                } catch (IllegalArgumentException e) {
+                    remaining.remove(sem);
+                }
+            }
+            throw new IllegalArgumentException("No labelings left");
+        }
         int id = rnd.nextInt(this.allInputs.size());
 
         return this.allInputs.remove(id);
@@ -97,31 +213,65 @@ public class Entity {
      * @return all labelings of the hidden AF wrt. the given semantics
      */
     public Collection<Input> getAllLabelings(Semantics sem) {
+        if (this.enumerators != null) {
+            // compute all remaining labelings
+            LabelingEnumerator enumerator = this.enumerators.get(sem);
+            while (enumerator.hasNext()) {
+                this.examples.get(sem).add(new Input(this.hiddenFramework, enumerator.next(), sem));
+            }
+        }
         return this.examples.get(sem);
     }
 
+    /**
+     * pack all labelings wrt. the given semantics into a labeling matrix, e.g. for bulk learning
+     * in lazy mode, the labelings that have not been enumerated yet are written directly into the matrix and are
+     * thereby given out, i.e. they are not returned by getLabeling afterwards
+     * @param semantics some semantics
+     * @return the matrix of all labelings of the hidden AF wrt. the given semantics
+     */
+    public LabelingMatrix getLabelingMatrix(Collection<Semantics> semantics) {
+        LabelingMatrix matrix = new LabelingMatrix(this.hiddenFramework);
+        for (Semantics sem: semantics) {
+            List<Input> examplesSem = this.examples.get(sem);
+            if (examplesSem == null) {
+                throw new IllegalArgumentException("Labelings for semantics " + sem.abbreviation() + " have not been computed");
+            }
+            for (Input input: examplesSem) {
+                matrix.add(input);
+            }
+            if (this.enumerators != null) {
+                LabelingEnumerator enumerator = this.enumerators.get(sem);
+                while (enumerator.hasNext()) {
+                    matrix.add(this.hiddenFramework, enumerator.next(), sem);
+                }
+            }
+        }
+        return matrix;
+    }
+
     /**
      * verify if the given theory is equivalent to the hidden framework w.r.t. the given labelings
-     * very inefficiently implemented right now
+     * i.e. each labeling is a valid labeling of the given theory w.r.t. its semantics
      *
      * @param theory a dung theory
      * @param inputs a set of labelings
      * @return "true" if both frameworks are equivalent
      */
     public boolean verifyFramework(DungTheory theory, Collection<Input> inputs) {
-        for (Semantics sem: this.examples.keySet()) {
-            Collection<Extension> exts = AbstractExtensionReasoner.getSimpleReasonerForSemantics(sem).getModels(theory);
-            for (Input input: inputs) {
-                if (!sem.equals(input.getSemantics())) {
-                    continue;
-                }
-                Extension ext = new Extension(input.getArgumentsOfStatus(ArgumentStatus.IN));
-                if (!exts.contains(ext)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return new LabelingVerifier(theory).findViolation(inputs) == null;
+    }
+
+    /**
+     * verify if the given theory is equivalent to the hidden framework w.r.t. the labelings of the given matrix
+     * the rows of the matrix are verified directly, without creating labelings
+     *
+     * @param theory a dung theory
+     * @param matrix some labelings
+     * @return "true" if both frameworks are equivalent
+     */
+    public boolean verifyFramework(DungTheory theory, LabelingMatrix matrix) {
+        return new LabelingVerifier(theory).findViolation(matrix) == null;
     }
 
     /**
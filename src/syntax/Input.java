@@ -1,11 +1,17 @@
 
 package syntax;
 
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
 import org.tweetyproject.arg.dung.semantics.Extension;
 import org.tweetyproject.arg.dung.semantics.Labeling;
 import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.arg.dung.syntax.DungTheory;
 
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 /**
  * Implementation of the input labeling (here called example) as an extension of normal labeling
  * i.e. a labeling with its corresponding semantics
@@ -17,6 +23,12 @@ public class Input extends Labeling{
     /** the semantics used to create this labeling */
     private Semantics semantics;
 
+    /** cached status of each argument by id, computed for a specific argument index */
+    private volatile IndexedStatuses statuses;
+
+    /** cached index of the arguments of this labeling */
+    private volatile ArgumentIndex index;
+
     /**
      * initialize input labeling from the given extension
      * @param theory some argumentation framework
@@ -32,6 +44,24 @@ public class Input extends Labeling{
         super();
     }
 
+    /**
+     * initialize input labeling from the statuses of the arguments by id, see LabelingMatrix
+     * the statuses by id are kept for the given index, so they do not have to be looked up again
+     * @param index some argument index
+     * @param statuses the status of each argument by id, null for arguments that are not labeled
+     * @param semantics the semantics of the labeling
+     */
+    Input(ArgumentIndex index, ArgumentStatus[] statuses, Semantics semantics) {
+        super();
+        for (int id = 0; id < statuses.length; id++) {
+            if (statuses[id] != null) {
+                super.put(index.getArgument(id), statuses[id]);
+            }
+        }
+        this.semantics = semantics;
+        this.statuses = IndexedStatuses.of(index, statuses);
+    }
+
     /**
      * return the semantics of this input labeling
      * @return the semantics
@@ -48,8 +78,199 @@ public class Input extends Labeling{
         this.semantics = semantics;
     }
 
+    /**
+     * return an index of the arguments of this labeling, it is created once and then shared
+     * @return the index of all arguments labeled by this labeling
+     */
+    public ArgumentIndex getIndex() {
+        ArgumentIndex cached = this.index;
+        if (cached == null) {
+            cached = new ArgumentIndex(this.keySet());
+            this.index = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * return the status of each argument as an array indexed by the ids of the given index
+     * the array is computed once per index and then shared, it must not be modified
+     * @param index some argument index
+     * @return the status of each argument, null for arguments not labeled by this labeling
+     */
+    public ArgumentStatus[] getStatuses(ArgumentIndex index) {
+        return this.getIndexedStatuses(index).statuses;
+    }
+
+    /**
+     * return the ids of all arguments with the given status in ascending order
+     * the IN, OUT and UNDECIDED partitions are computed once per index together with the statuses and then shared,
+     * the array must not be modified
+     * @param status some status
+     * @param index some argument index
+     * @return the ids of all arguments with the given status
+     */
+    public int[] getIdsOfStatus(ArgumentStatus status, ArgumentIndex index) {
+        return this.getIndexedStatuses(index).partitions[status.ordinal()];
+    }
+
+    /**
+     * return the templates for the attack constraints of this labeling wrt. the given index
+     * the templates are shared by all constraints computed from this labeling, see ConstraintTemplates
+     * @param index some argument index
+     * @return the constraint templates
+     */
+    public ConstraintTemplates getTemplates(ArgumentIndex index) {
+        return this.getIndexedStatuses(index).templates;
+    }
+
+    private IndexedStatuses getIndexedStatuses(ArgumentIndex index) {
+        IndexedStatuses cached = this.statuses;
+        if (cached != null && cached.index == index) {
+            return cached;
+        }
+        ArgumentStatus[] result = new ArgumentStatus[index.size()];
+        for (int id = 0; id < result.length; id++) {
+            result[id] = this.get(index.getArgument(id));
+        }
+        cached = IndexedStatuses.of(index, result);
+        this.statuses = cached;
+        return cached;
+    }
+
+    /**
+     * drop the cached index and statuses, every modification of the labeling must call this first
+     * the views keySet, values and entrySet must not be used to modify the labeling
+     */
+    private void invalidate() {
+        this.statuses = null;
+        this.index = null;
+    }
+
+    @Override
+    public ArgumentStatus put(Argument arg, ArgumentStatus status) {
+        this.invalidate();
+        return super.put(arg, status);
+    }
+
+    @Override
+    public void putAll(Map<? extends Argument, ? extends ArgumentStatus> labeling) {
+        this.invalidate();
+        super.putAll(labeling);
+    }
+
+    @Override
+    public ArgumentStatus remove(Object arg) {
+        this.invalidate();
+        return super.remove(arg);
+    }
+
+    @Override
+    public void clear() {
+        this.invalidate();
+        super.clear();
+    }
+
+    @Override
+    public ArgumentStatus putIfAbsent(Argument arg, ArgumentStatus status) {
+        this.invalidate();
+        return super.putIfAbsent(arg, status);
+    }
+
+    @Override
+    public boolean remove(Object arg, Object status) {
+        this.invalidate();
+        return super.remove(arg, status);
+    }
+
+    @Override
+    public boolean replace(Argument arg, ArgumentStatus oldStatus, ArgumentStatus newStatus) {
+        this.invalidate();
+        return super.replace(arg, oldStatus, newStatus);
+    }
+
+    @Override
+    public ArgumentStatus replace(Argument arg, ArgumentStatus status) {
+        this.invalidate();
+        return super.replace(arg, status);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super Argument, ? super ArgumentStatus, ? extends ArgumentStatus> function) {
+        this.invalidate();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public ArgumentStatus computeIfAbsent(Argument arg, Function<? super Argument, ? extends ArgumentStatus> function) {
+        this.invalidate();
+        return super.computeIfAbsent(arg, function);
+    }
+
+    @Override
+    public ArgumentStatus computeIfPresent(Argument arg, BiFunction<? super Argument, ? super ArgumentStatus, ? extends ArgumentStatus> function) {
+        this.invalidate();
+        return super.computeIfPresent(arg, function);
+    }
+
+    @Override
+    public ArgumentStatus compute(Argument arg, BiFunction<? super Argument, ? super ArgumentStatus, ? extends ArgumentStatus> function) {
+        this.invalidate();
+        return super.compute(arg, function);
+    }
+
+    @Override
+    public ArgumentStatus merge(Argument arg, ArgumentStatus status, BiFunction<? super ArgumentStatus, ? super ArgumentStatus, ? extends ArgumentStatus> function) {
+        this.invalidate();
+        return super.merge(arg, status, function);
+    }
+
     @Override
     public String toString() {
         return this.getSemantics().abbreviation() + ": " + super.toString();
     }
+
+    /**
+     * the statuses of the arguments by id together with the index the ids refer to
+     * and the ids of the arguments of each status, by the ordinal of the status
+     */
+    private static class IndexedStatuses {
+        private final ArgumentIndex index;
+        private final ArgumentStatus[] statuses;
+        private final int[][] partitions;
+        private final ConstraintTemplates templates;
+
+        private IndexedStatuses(ArgumentIndex index, ArgumentStatus[] statuses, int[][] partitions) {
+            this.index = index;
+            this.statuses = statuses;
+            this.partitions = partitions;
+            this.templates = new ConstraintTemplates(index, partitions);
+        }
+
+        /**
+         * compute the partitions for the given statuses
+         * @param index some argument index
+         * @param statuses the status of each argument by id
+         * @return the statuses together with their partitions
+         */
+        private static IndexedStatuses of(ArgumentIndex index, ArgumentStatus[] statuses) {
+            int[] counts = new int[ArgumentStatus.values().length];
+            for (ArgumentStatus status: statuses) {
+                if (status != null) {
+                    counts[status.ordinal()]++;
+                }
+            }
+            int[][] partitions = new int[counts.length][];
+            for (int i = 0; i < counts.length; i++) {
+                partitions[i] = new int[counts[i]];
+                counts[i] = 0;
+            }
+            for (int id = 0; id < statuses.length; id++) {
+                if (statuses[id] != null) {
+                    int i = statuses[id].ordinal();
+                    partitions[i][counts[i]++] = id;
+                }
+            }
+            return new IndexedStatuses(index, statuses, partitions);
+        }
+    }
 }
@@ -0,0 +1,324 @@
+package syntax;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact store for a large number of labelings over the same arguments
+ * The status of each argument in each labeling is packed into 2 bits (0 for unlabeled, otherwise the ordinal of the
+ * status plus one), so a long holds 32 statuses. The statuses are stored row-major, i.e. all statuses of one labeling
+ * are packed together, since the learners and the verifier always process a labeling as a whole.
+ * Input labelings are only created on demand via getInput and are not kept by the matrix.
+ *
+ * @author Lars Bengel
+ */
+public class LabelingMatrix {
+
+    /** number of statuses per long */
+    private static final int PER_LONG = Long.SIZE / 2;
+    private static final ArgumentStatus[] STATUSES = ArgumentStatus.values();
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the packed statuses of each labeling, by row */
+    private long[][] rows;
+    /** the semantics of each labeling, by row */
+    private Semantics[] semantics;
+    /** number of labelings in the matrix */
+    private int size;
+
+    /**
+     * initialize an empty matrix for the arguments of the given index
+     * @param index the index of all arguments
+     */
+    public LabelingMatrix(ArgumentIndex index) {
+        this.index = index;
+        this.rows = new long[16][];
+        this.semantics = new Semantics[16];
+        this.size = 0;
+    }
+
+    /**
+     * initialize an empty matrix for the given arguments
+     * @param args a set of arguments
+     */
+    public LabelingMatrix(Collection<Argument> args) {
+        this(new ArgumentIndex(args));
+    }
+
+    /**
+     * add the given labeling as a new row
+     * @param input some labeling
+     * @return the row of the labeling
+     */
+    public int add(Input input) {
+        ArgumentStatus[] statuses = input.getStatuses(this.index);
+        long[] row = new long[words(statuses.length)];
+        for (int id = 0; id < statuses.length; id++) {
+            if (statuses[id] != null) {
+                set(row, id, statuses[id].ordinal() + 1);
+            }
+        }
+        return this.add(row, input.getSemantics());
+    }
+
+    /**
+     * add the labeling of the given extension as a new row, without creating an intermediate labeling
+     * i.e. the arguments of the extension are IN, the arguments attacked by them OUT and all other arguments UNDECIDED
+     * @param theory some argumentation framework over the arguments of this matrix
+     * @param extension some extension
+     * @param semantics the semantics of the extension
+     * @return the row of the labeling
+     */
+    public int add(DungTheory theory, Collection<Argument> extension, Semantics semantics) {
+        int n = this.index.size();
+        long[] row = new long[words(n)];
+        for (int id = 0; id < n; id++) {
+            set(row, id, ArgumentStatus.UNDECIDED.ordinal() + 1);
+        }
+        for (Argument a: extension) {
+            for (Argument b: theory.getAttacked(a)) {
+                set(row, this.index.getId(b), ArgumentStatus.OUT.ordinal() + 1);
+            }
+        }
+        for (Argument a: extension) {
+            set(row, this.index.getId(a), ArgumentStatus.IN.ordinal() + 1);
+        }
+        return this.add(row, semantics);
+    }
+
+    /**
+     * copy all rows of the given matrix as new rows, without creating intermediate labelings
+     * the packed statuses are shared if both matrices have the same index, since rows are never modified, and mapped by
+     * argument otherwise
+     * @param other some matrix over the same arguments
+     */
+    public void addAll(LabelingMatrix other) {
+        int[] ids = other.index == this.index ? null : other.getIds(this.index);
+        // the size is read once, so that adding a matrix to itself terminates
+        int size = other.size;
+        for (int r = 0; r < size; r++) {
+            if (ids == null) {
+                this.add(other.rows[r], other.semantics[r]);
+                continue;
+            }
+            long[] row = new long[words(ids.length)];
+            for (int id = 0; id < ids.length; id++) {
+                if (ids[id] >= 0) {
+                    set(row, id, get(other.rows[r], ids[id]));
+                }
+            }
+            this.add(row, other.semantics[r]);
+        }
+    }
+
+    private int add(long[] row, Semantics semantics) {
+        int r = this.size;
+        if (r == this.rows.length) {
+            this.rows = Arrays.copyOf(this.rows, 2 * r);
+            this.semantics = Arrays.copyOf(this.semantics, 2 * r);
+        }
+        this.rows[r] = row;
+        this.semantics[r] = semantics;
+        this.size = r + 1;
+        return r;
+    }
+
+    /**
+     * @return the number of labelings in the matrix
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the index of all arguments, the columns of the matrix are given by its ids
+     */
+    public ArgumentIndex getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @param row some row
+     * @return the semantics of the labeling in this row
+     */
+    public Semantics getSemantics(int row) {
+        this.checkRow(row);
+        return this.semantics[row];
+    }
+
+    /**
+     * @param row some row
+     * @param arg id of some argument
+     * @return the status of the argument in the labeling of this row, null if it is not labeled
+     */
+    public ArgumentStatus getStatus(int row, int arg) {
+        this.checkRow(row);
+        return toStatus(get(this.rows[row], arg));
+    }
+
+    /**
+     * @param row some row
+     * @return the status of each argument by id in the labeling of this row
+     */
+    public ArgumentStatus[] getRow(int row) {
+        this.checkRow(row);
+        ArgumentStatus[] statuses = new ArgumentStatus[this.index.size()];
+        for (int id = 0; id < statuses.length; id++) {
+            statuses[id] = toStatus(get(this.rows[row], id));
+        }
+        return statuses;
+    }
+
+    /**
+     * @param row some row
+     * @param index some index over the same arguments
+     * @return the status of each argument by its id in the given index in the labeling of this row
+     */
+    public ArgumentStatus[] getRow(int row, ArgumentIndex index) {
+        if (index == this.index) {
+            return this.getRow(row);
+        }
+        return this.getRow(row, this.getIds(index));
+    }
+
+    /**
+     * @param row some row
+     * @param ids the id in this matrix for each id of some other index, see getIds
+     * @return the status of each argument by its id in the other index in the labeling of this row
+     */
+    private ArgumentStatus[] getRow(int row, int[] ids) {
+        this.checkRow(row);
+        ArgumentStatus[] statuses = new ArgumentStatus[ids.length];
+        for (int id = 0; id < ids.length; id++) {
+            statuses[id] = ids[id] < 0 ? null : toStatus(get(this.rows[row], ids[id]));
+        }
+        return statuses;
+    }
+
+    /**
+     * @param row some row
+     * @param status some status
+     * @return the ids of all arguments with the given status in the labeling of this row in ascending order
+     */
+    public int[] getIdsOfStatus(int row, ArgumentStatus status) {
+        this.checkRow(row);
+        return select(this.rows[row], this.index.size(), status.ordinal() + 1);
+    }
+
+    /**
+     * create the constraint templates of the labeling of the given row directly from its packed statuses, i.e. without
+     * creating the labeling
+     * @param row some row
+     * @return the templates of the labeling of this row wrt. the index of this matrix
+     */
+    public ConstraintTemplates getTemplates(int row) {
+        this.checkRow(row);
+        int[][] partitions = new int[STATUSES.length][];
+        for (ArgumentStatus status: STATUSES) {
+            partitions[status.ordinal()] = select(this.rows[row], this.index.size(), status.ordinal() + 1);
+        }
+        return new ConstraintTemplates(this.index, partitions);
+    }
+
+    /**
+     * create the labeling of the given row
+     * @param row some row
+     * @return the labeling of this row
+     */
+    public Input getInput(int row) {
+        return new Input(this.index, this.getRow(row), this.getSemantics(row));
+    }
+
+    /**
+     * create the labeling of the given row, its statuses by id are prepared for the given index
+     * @param row some row
+     * @param index some index over the same arguments, e.g. the index of a learner
+     * @return the labeling of this row
+     */
+    public Input getInput(int row, ArgumentIndex index) {
+        return new Input(index, this.getRow(row, index), this.getSemantics(row));
+    }
+
+    /**
+     * create the labelings of the given range of rows, their statuses by id are prepared for the given index
+     * @param from the first row, inclusive
+     * @param to the last row, exclusive
+     * @param index some index over the same arguments, e.g. the index of a learner
+     * @return the labelings of these rows
+     */
+    public List<Input> getInputs(int from, int to, ArgumentIndex index) {
+        int[] ids = index == this.index ? null : this.getIds(index);
+        List<Input> inputs = new ArrayList<>(Math.max(0, to - from));
+        for (int r = from; r < to; r++) {
+            inputs.add(new Input(index, ids == null ? this.getRow(r) : this.getRow(r, ids), this.getSemantics(r)));
+        }
+        return inputs;
+    }
+
+    /**
+     * @param index some index
+     * @return for each id of the given index the id of the same argument in this matrix, -1 if it is not contained
+     */
+    private int[] getIds(ArgumentIndex index) {
+        int[] ids = new int[index.size()];
+        for (int id = 0; id < ids.length; id++) {
+            Argument arg = index.getArgument(id);
+            ids[id] = this.index.contains(arg) ? this.index.getId(arg) : -1;
+        }
+        return ids;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= this.size) {
+            throw new IllegalArgumentException("Unknown row: " + row);
+        }
+    }
+
+    /**
+     * @param packed some packed statuses
+     * @param length the number of statuses
+     * @param code some code
+     * @return the positions of all statuses with the given code in ascending order
+     */
+    private static int[] select(long[] packed, int length, int code) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (get(packed, i) == code) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int j = 0;
+        for (int i = 0; j < count; i++) {
+            if (get(packed, i) == code) {
+                result[j++] = i;
+            }
+        }
+        return result;
+    }
+
+    private static ArgumentStatus toStatus(int code) {
+        return code == 0 ? null : STATUSES[code - 1];
+    }
+
+    private static int words(int length) {
+        return Math.max(1, (length + PER_LONG - 1) / PER_LONG);
+    }
+
+    private static int get(long[] packed, int i) {
+        return (int) (packed[i / PER_LONG] >>> (2 * (i % PER_LONG))) & 3;
+    }
+
+    private static void set(long[] packed, int i, int code) {
+        int shift = 2 * (i % PER_LONG);
+        packed[i / PER_LONG] = (packed[i / PER_LONG] & ~(3L << shift)) | ((long) code << shift);
+    }
+}
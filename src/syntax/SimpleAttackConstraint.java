@@ -1,12 +1,17 @@
-
 package syntax;
 
 import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
 import org.tweetyproject.arg.dung.syntax.Argument;
 import org.tweetyproject.logics.pl.syntax.*;
+import util.IndexSet;
+import util.ModelComputation;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.List;
 
 /**
  * Implementation of the acceptance conditions used for learning argumentation frameworks from labelings
@@ -14,6 +19,11 @@ import java.util.HashSet;
  * for each acceptance condition we also store the argument a it is associated with
  * In the condition itself we then use !b and b to represent !r_(ba) and r_(ba) respectively
  * e.g. the condition C_a = !a && !c && b means a is not attacked by a and c, but must be attacked by b
+ * The condition is kept in a flat normal form, i.e. the set of forbidden attackers and a list of positive clauses,
+ * where no clause contains a forbidden attacker and no clause is a superset of another one. Combining two conditions
+ * updates this form in place, the formula is only created when requested via getCondition.
+ * A labeling can also be added in place via add(Input), which reads the attackers directly from the templates of the
+ * labeling. Apart from storing new minimal clauses, this does not allocate any memory.
  *
  * @author Lars Bengel
  */
@@ -21,8 +31,15 @@ public class SimpleAttackConstraint implements AttackConstraint<AssociativePlFor
 
     /** the argument this acceptance condition is for */
     protected Argument argument;
-    /** the actual condition */
-    protected AssociativePlFormula condition;
+    /** the ids of the arguments that must not attack the argument */
+    protected BitSet forbidden;
+    /** the minimal positive clauses, at least one argument of each clause must attack the argument */
+    protected List<BitSet> clauses;
+    /** the index used to map between arguments and their ids */
+    protected ArgumentIndex index;
+
+    /** per-thread scratch list for the clauses that are reduced by new forbidden attackers */
+    private static final ThreadLocal<List<BitSet>> REDUCED = ThreadLocal.withInitial(ArrayList::new);
 
     /**
      * initialize empty acceptance condition for the given argument
@@ -30,8 +47,20 @@ public class SimpleAttackConstraint implements AttackConstraint<AssociativePlFor
      * @param arg some argument
      */
     public SimpleAttackConstraint(Argument arg) {
+        this(arg, (ArgumentIndex) null);
+    }
+
+    /**
+     * initialize empty acceptance condition for the given argument
+     * in tha case any incoming attack is optional
+     * @param arg some argument
+     * @param index the index of all arguments
+     */
+    public SimpleAttackConstraint(Argument arg, ArgumentIndex index) {
         this.argument = arg;
-        this.condition = new Conjunction();
+        this.index = index;
+        this.forbidden = new BitSet(index == null ? 0 : index.size());
+        this.clauses = new ArrayList<>();
     }
 
     /**
@@ -40,53 +69,213 @@ public class SimpleAttackConstraint implements AttackConstraint<AssociativePlFor
      * @param input some input labeling
      */
     public SimpleAttackConstraint(Argument arg, Input input) {
-        this.argument = arg;
-        this.condition = getConditionForArgument(arg, input);
+        this(arg, input, input.getIndex());
     }
 
     /**
-     * compute acceptance condition by combining two acceptance conditions for the same argument a
-     *
-     * @param condition1 some condition for the argument a
-     * @param condition2 some condition for the argument a
+     * compute acceptance condition for the given argument with respect to the given input labeling
+     * @param arg some argument
+     * @param input some input labeling
+     * @param index the index of all arguments
      */
-    public SimpleAttackConstraint(SimpleAttackConstraint condition1, SimpleAttackConstraint condition2) {
-        this(condition1, condition2, false);
+    public SimpleAttackConstraint(Argument arg, Input input, ArgumentIndex index) {
+        this(arg, index);
+        this.addConditionForArgument(index.getId(arg), input);
     }
 
     /**
      * compute acceptance condition by combining two acceptance conditions for the same argument a
-     * after combining the acceptance condition is transformed into DNF
-     * this leads to better computability in later steps
-     * see: thesis.util.ModelComputation
      *
      * @param condition1 some condition for the argument a
      * @param condition2 some condition for the argument a
-     * @param toDNF true if acceptance condition should be transformed to DNF
      */
-    public SimpleAttackConstraint(SimpleAttackConstraint condition1, SimpleAttackConstraint condition2, boolean toDNF) {
+    public SimpleAttackConstraint(SimpleAttackConstraint condition1, SimpleAttackConstraint condition2) {
         // throw exception if the conditions are for different arguments
         if (!condition1.getArgument().equals(condition2.getArgument())) {
-            System.out.println("\n"+condition1);
-            System.out.println(condition2);
             throw new IllegalArgumentException("Should not happen");
         }
         this.argument = condition1.getArgument();
-        if (toDNF) {
-            // combine conditions and transform to dnf
-            this.condition = (AssociativePlFormula) new Conjunction(condition1.getCondition(), condition2.getCondition()).collapseAssociativeFormulas().toDnf().trim();
-        } else {
-            this.condition = (AssociativePlFormula) new Conjunction(condition1.getCondition(), condition2.getCondition()).collapseAssociativeFormulas().trim();
+        this.index = condition1.index;
+        this.forbidden = (BitSet) condition1.forbidden.clone();
+        this.clauses = new ArrayList<>(condition1.clauses.size());
+        for (BitSet clause: condition1.clauses) {
+            this.clauses.add((BitSet) clause.clone());
+        }
+        this.add(condition2);
+    }
+
+    /**
+     * combine the given acceptance condition with this one in place
+     * the cost depends on the size of the new condition and the number of minimal clauses, not on the number of
+     * conditions combined so far
+     * @param condition some condition for the same argument
+     */
+    public void add(SimpleAttackConstraint condition) {
+        if (!condition.getArgument().equals(this.argument)) {
+            throw new IllegalArgumentException("Should not happen");
+        }
+        if (this.index == null) {
+            this.index = condition.index;
+        } else if (condition.index != null && this.index != condition.index) {
+            throw new IllegalArgumentException("Constraints refer to different argument indices");
+        }
+        int numForbidden = this.forbidden.cardinality();
+        this.forbidden.or(condition.forbidden);
+        if (this.forbidden.cardinality() > numForbidden) {
+            this.reduceClauses();
+        }
+        for (BitSet clause: condition.clauses) {
+            BitSet reduced = (BitSet) clause.clone();
+            reduced.andNot(this.forbidden);
+            this.insertClause(reduced);
+        }
+    }
+
+    /**
+     * add the acceptance condition with respect to the given labeling to this one in place
+     * @param input some input labeling
+     */
+    public void add(Input input) {
+        if (this.index == null) {
+            this.index = input.getIndex();
+        }
+        this.addConditionForArgument(this.index.getId(this.argument), input);
+    }
+
+    /**
+     * forbid the given attackers and remove them from all clauses
+     * @param attackers ids of some arguments
+     */
+    private void addForbidden(IndexSet attackers) {
+        boolean added = false;
+        for (int b = attackers.next(0); b >= 0; b = attackers.next(b + 1)) {
+            if (!this.forbidden.get(b)) {
+                this.forbidden.set(b);
+                added = true;
+            }
         }
+        if (added) {
+            this.reduceClauses();
+        }
+    }
 
+    /**
+     * remove the forbidden attackers from all clauses, the reduced clauses may now subsume other clauses
+     * no clause contained a forbidden attacker before, so only clauses with a new forbidden attacker are affected
+     */
+    private void reduceClauses() {
+        List<BitSet> reduced = REDUCED.get();
+        for (int i = this.clauses.size() - 1; i >= 0; i--) {
+            BitSet clause = this.clauses.get(i);
+            if (clause.intersects(this.forbidden)) {
+                clause.andNot(this.forbidden);
+                this.removeClause(i);
+                reduced.add(clause);
+            }
+        }
+        for (int i = 0; i < reduced.size(); i++) {
+            this.insertClause(reduced.get(i));
+        }
+        reduced.clear();
     }
 
     /**
-     * return the acceptance condition
+     * add a positive clause without its forbidden attackers, unless it is subsumed by another clause
+     * nothing is allocated if the clause is subsumed
+     * @param attackers ids of the arguments of the clause
+     */
+    private void addClause(IndexSet attackers) {
+        // no clause contains a forbidden attacker, so it suffices to check for a subset of the attackers
+        for (int i = 0; i < this.clauses.size(); i++) {
+            if (isSubset(this.clauses.get(i), attackers)) {
+                return;
+            }
+        }
+        BitSet clause = new BitSet(this.index.size());
+        for (int b = attackers.next(0); b >= 0; b = attackers.next(b + 1)) {
+            if (!this.forbidden.get(b)) {
+                clause.set(b);
+            }
+        }
+        this.insertClause(clause);
+    }
+
+    /**
+     * add a positive clause without forbidden attackers, unless it is subsumed by another clause
+     * all clauses subsumed by the new clause are removed
+     * @param clause ids of the arguments of the clause, the set is kept by this condition
+     */
+    private void insertClause(BitSet clause) {
+        for (int i = this.clauses.size() - 1; i >= 0; i--) {
+            BitSet other = this.clauses.get(i);
+            if (isSubset(other, clause)) {
+                return;
+            }
+            if (isSubset(clause, other)) {
+                this.removeClause(i);
+            }
+        }
+        this.clauses.add(clause);
+    }
+
+    /**
+     * remove the clause at the given position by replacing it with the last clause
+     * @param i some position
+     */
+    private void removeClause(int i) {
+        int last = this.clauses.size() - 1;
+        this.clauses.set(i, this.clauses.get(last));
+        this.clauses.remove(last);
+    }
+
+    /**
+     * @param a some set
+     * @param b some set
+     * @return true if a is a subset of b
+     */
+    private static boolean isSubset(BitSet a, BitSet b) {
+        if (a.length() > b.length()) {
+            return false;
+        }
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+            if (!b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param a some set
+     * @param b some set
+     * @return true if a is a subset of b
+     */
+    private static boolean isSubset(BitSet a, IndexSet b) {
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+            if (!b.contains(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * return the acceptance condition, i.e. the conjunction of all negated forbidden attackers and all clauses
      * @return the condition
      */
     public AssociativePlFormula getCondition() {
-        return condition;
+        Collection<PlFormula> formulas = new ArrayList<>();
+        for (int b = this.forbidden.nextSetBit(0); b >= 0; b = this.forbidden.nextSetBit(b + 1)) {
+            formulas.add(this.index.getNegation(b));
+        }
+        for (BitSet clause: this.clauses) {
+            Collection<PlFormula> attackers = new ArrayList<>();
+            for (int b = clause.nextSetBit(0); b >= 0; b = clause.nextSetBit(b + 1)) {
+                attackers.add(this.index.getProposition(b));
+            }
+            formulas.add(new Disjunction(attackers));
+        }
+        return new Conjunction(formulas);
     }
 
     /**
@@ -104,145 +293,143 @@ public class SimpleAttackConstraint implements AttackConstraint<AssociativePlFor
      * @return the acceptance condition for arg wrt. the input labeling
      */
     public AssociativePlFormula getConditionForArgument(Argument arg, Input input) {
-        switch (input.getSemantics()) {
-            case CF:
-                return this.getConditionForArgumentCF(arg, input);
-            case ADM:
-                return this.getConditionForArgumentADM(arg, input);
-            case CO:
-                return this.getConditionForArgumentCO(arg, input);
-            case ST:
-                return this.getConditionForArgumentST(arg, input);
-            default:
-                throw new IllegalArgumentException("Unsupported Semantics");
-        }
+        ArgumentIndex index = this.index != null && this.index.contains(arg) ? this.index : input.getIndex();
+        return new SimpleAttackConstraint(arg, input, index).getCondition();
     }
 
     /**
-     * compute the acceptance condition for arg wrt. to a conflict-free labeling
-     * @param arg some argument
+     * add the acceptance condition with respect to the labeling and its semantics for the argument with the given id
+     * the condition is assembled from the templates of the labeling, which are shared by all arguments of the same status
+     * @param arg id of some argument
      * @param input some input labeling
-     * @return the condition for arg considering input as a conflict-free labeling
      */
-    protected AssociativePlFormula getConditionForArgumentCF(Argument arg, Input input) {
-        AssociativePlFormula formula = new Conjunction();
-        switch (input.get(arg)) {
-            case UNDECIDED:
-            case IN:
-                Collection<PlFormula> cf_arguments = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    cf_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                formula = new Conjunction(cf_arguments);
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
-                }
-                formula = new Disjunction(poss_attackers);
-                break;
+    protected void addConditionForArgument(int arg, Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[arg];
+        if (status != null) {
+            this.add(input.getSemantics(), status, input.getTemplates(this.index));
         }
-        return formula;
     }
 
     /**
-     * compute the acceptance condition for arg wrt. to an admissible labeling
-     * @param arg some argument
+     * add the acceptance condition with respect to a labeling to this one in place, the templates must refer to the
+     * index of this condition
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     */
+    public void add(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        this.addForbidden(templates.getForbidden(semantics, status));
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required != null) {
+            this.addClause(required);
+        }
+    }
+
+    /**
+     * a negated attacker is implied iff it is forbidden already and a clause iff it contains some minimal clause
      * @param input some input labeling
-     * @return the condition for arg considering input as an admissible labeling
+     * @return true if adding the labeling would not change this condition
      */
-    protected AssociativePlFormula getConditionForArgumentADM(Argument arg, Input input) {
-        AssociativePlFormula formula = new Conjunction();
-        switch (input.get(arg)) {
-            case IN:
-                // an IN argument can not be attacked by another IN argument or a UNDECIDED argument (i.e. then it would not be defended)
-                Collection<PlFormula> cf_arguments = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    cf_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    cf_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                formula = new Conjunction(cf_arguments);
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
-                }
-                formula = new Disjunction(poss_attackers);
-                break;
-            case UNDECIDED:
-                // an UNDECIDED argument can not be attacked by an IN argument (i.e. then it would be OUT)
-                Collection<PlFormula> in_arguments = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    in_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                formula = new Conjunction(in_arguments);
-                break;
+    public boolean entails(Input input) {
+        if (this.index == null) {
+            return false;
+        }
+        ArgumentStatus status = input.getStatuses(this.index)[this.index.getId(this.argument)];
+        return status == null || this.entails(input.getSemantics(), status, input.getTemplates(this.index));
+    }
 
+    /**
+     * see entails(Input)
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if adding the labeling would not change this condition
+     */
+    public boolean entails(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        if (this.isUnsatisfiable()) {
+            return true;
+        }
+        IndexSet forbidden = templates.getForbidden(semantics, status);
+        for (int b = forbidden.next(0); b >= 0; b = forbidden.next(b + 1)) {
+            if (!this.forbidden.get(b)) {
+                return false;
+            }
+        }
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required == null) {
+            return true;
+        }
+        for (int i = 0; i < this.clauses.size(); i++) {
+            if (isSubset(this.clauses.get(i), required)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    /**
+     * the attackers are determined iff every argument is either forbidden or the only argument of some clause, since
+     * the minimal clauses with more arguments then cannot exist
+     * @return true if exactly one set of attackers satisfies this condition
+     */
+    public boolean isDetermined() {
+        if (this.index == null || this.isUnsatisfiable()) {
+            return false;
+        }
+        int numForbidden = this.forbidden.cardinality();
+        if (numForbidden + this.clauses.size() < this.index.size()) {
+            return false;
         }
-        return formula;
+        int numForced = 0;
+        // indexed, so that no iterator is allocated for every learned labeling
+        for (int i = 0; i < this.clauses.size(); i++) {
+            if (this.clauses.get(i).cardinality() == 1) {
+                numForced++;
+            }
+        }
+        return numForbidden + numForced == this.index.size();
     }
 
     /**
-     * compute the acceptance condition for arg wrt. to a complete labeling
-     * @param arg some argument
-     * @param input some input labeling
-     * @return the condition for arg considering input as a complete labeling
+     * the empty clause subsumes every other clause, so it is the only clause of an unsatisfiable condition
+     * @return true if no set of attackers satisfies this condition
      */
-    protected AssociativePlFormula getConditionForArgumentCO(Argument arg, Input input) {
-        AssociativePlFormula formula = new Conjunction();
-        switch (input.get(arg)) {
-            case IN:
-                // an IN argument can not be attacked by another IN argument or a UNDECIDED argument (i.e. then it would not be defended)
-                Collection<PlFormula> cf_arguments = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    cf_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    cf_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                formula = new Conjunction(cf_arguments);
-                break;
-            case OUT:
-                Collection<PlFormula> poss_attackers = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    poss_attackers.add(new Proposition(b.getName()));
-                }
-                formula = new Disjunction(poss_attackers);
-                break;
-            case UNDECIDED:
-                // an UNDECIDED argument can not be attacked by an IN argument (i.e. then it would be OUT)
-                Collection<PlFormula> in_arguments = new HashSet<>();
-                for (Argument b: input.getArgumentsOfStatus(ArgumentStatus.IN)) {
-                    in_arguments.add(new Negation(new Proposition(b.getName())));
-                }
-                formula = new Conjunction(in_arguments);
-                Collection<PlFormula> und_arguments = new HashSet<>();
-                for (Argument c: input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED)) {
-                    und_arguments.add(new Proposition(c.getName()));
-                }
-                AssociativePlFormula sub_formula = new Disjunction(und_arguments);
+    public boolean isUnsatisfiable() {
+        return this.clauses.size() == 1 && this.clauses.get(0).isEmpty();
+    }
 
-                formula = new Conjunction(formula, sub_formula);
-                break;
-        }
-        return formula;
+    /**
+     * compute a set of attackers satisfying this acceptance condition in linear time
+     * @return the ids of the attackers, null if the condition is unsatisfiable
+     */
+    public BitSet getWitness() {
+        return ModelComputation.getWitnessOfClauses(this.forbidden, this.clauses);
     }
 
     /**
-     * compute the acceptance condition for arg wrt. to a stable labeling
-     * @param arg some argument
-     * @param input some input labeling
-     * @return the condition for arg considering input as a stable labeling
+     * count the sets of attackers satisfying this acceptance condition, including all optional attackers
+     * @return the exact number of partial attack relations of the argument
      */
-    protected AssociativePlFormula getConditionForArgumentST(Argument arg, Input input) {
-        if (!input.getArgumentsOfStatus(ArgumentStatus.UNDECIDED).isEmpty())
-            throw new IllegalArgumentException("Labeling is not stable");
-        return getConditionForArgumentCF(arg, input);
+    public BigInteger countModels() {
+        return ModelComputation.countModelsOfClauses(this.forbidden, this.clauses, this.index.size());
+    }
+
+    /**
+     * @return the ids of all arguments that must not attack the argument, i.e. all negated atoms of the condition
+     */
+    public BitSet getForbiddenAttackers() {
+        return (BitSet) this.forbidden.clone();
+    }
+
+    /**
+     * @return the ids of the arguments of each positive clause, at least one argument of each clause must attack the argument
+     */
+    public Collection<BitSet> getPositiveClauses() {
+        Collection<BitSet> clauses = new ArrayList<>(this.clauses.size());
+        for (BitSet clause: this.clauses) {
+            clauses.add((BitSet) clause.clone());
+        }
+        return clauses;
     }
 
     /**
@@ -251,21 +438,26 @@ public class SimpleAttackConstraint implements AttackConstraint<AssociativePlFor
      * @return the optional acceptance condition of this argument
      */
     public AssociativePlFormula getOptionalCondition(Collection<Argument> arguments) {
-        Collection<Argument> args = new HashSet<>();
-        for (Proposition atom: this.condition.getAtoms()) {
-            args.add(new Argument(atom.getName()));
+        BitSet occurring = (BitSet) this.forbidden.clone();
+        for (BitSet clause: this.clauses) {
+            occurring.or(clause);
         }
-        Collection<Argument> optionalArguments = new HashSet<>(arguments);
-        optionalArguments.removeAll(args);
-        Collection<PlFormula> optionalAtoms = new HashSet<>();
-        for (Argument a: optionalArguments) {
-            optionalAtoms.add(new Proposition(a.getName()));
+        Collection<PlFormula> optionalAtoms = new ArrayList<>();
+        for (Argument a: arguments) {
+            if (this.index != null && this.index.contains(a)) {
+                int id = this.index.getId(a);
+                if (!occurring.get(id)) {
+                    optionalAtoms.add(this.index.getProposition(id));
+                }
+            } else {
+                optionalAtoms.add(new Proposition(a.getName()));
+            }
         }
         return new Disjunction(optionalAtoms);
     }
 
     @Override
     public String toString() {
-        return argument + ":\t\t" + condition;
+        return argument + ":\t\t" + this.getCondition();
     }
 }
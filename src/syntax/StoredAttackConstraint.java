@@ -0,0 +1,429 @@
+package syntax;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.logics.pl.syntax.*;
+import util.ConstraintStore;
+import util.IndexSet;
+import util.ModelComputation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Acceptance condition of an argument whose state is kept in a constraint store outside of the heap
+ * The condition is kept in the same flat normal form as SimpleAttackConstraint, i.e. the set of forbidden attackers and
+ * the minimal positive clauses without forbidden attackers. Both the forbidden attackers and the clauses are kept in
+ * the store, so the heap only holds the addresses of the minimal clauses. Clauses that are dropped are released to the
+ * store, so their space is reused. Labelings are added in place via add(Input).
+ *
+ * @author Lars Bengel
+ */
+public class StoredAttackConstraint implements AttackConstraint<AssociativePlFormula> {
+
+    /** the argument this acceptance condition is for */
+    private final Argument argument;
+    /** the id of the argument */
+    private final int id;
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the store holding the state of the condition */
+    private final ConstraintStore store;
+    /** the addresses of the minimal positive clauses in the store, the first numClauses entries are set */
+    private long[] clauses;
+    /** the number of minimal clauses */
+    private int numClauses;
+
+    /** per-thread scratch buffer for the attackers of a new clause */
+    private static final ThreadLocal<int[][]> ATTACKERS = ThreadLocal.withInitial(() -> new int[1][16]);
+    /** per-thread scratch buffer for the addresses of the clauses reduced by new forbidden attackers */
+    private static final ThreadLocal<long[][]> REDUCED = ThreadLocal.withInitial(() -> new long[1][16]);
+
+    /**
+     * initialize empty acceptance condition for the given argument, i.e. any incoming attack is optional
+     * @param arg some argument
+     * @param index the index of all arguments
+     * @param store the store for the state of the condition, it must not hold forbidden attackers of the argument yet
+     */
+    public StoredAttackConstraint(Argument arg, ArgumentIndex index, ConstraintStore store) {
+        if (store.getNumberOfArguments() != index.size()) {
+            throw new IllegalArgumentException("Store has " + store.getNumberOfArguments() + " arguments, but index has " + index.size());
+        }
+        this.argument = arg;
+        this.id = index.getId(arg);
+        this.index = index;
+        this.store = store;
+        this.clauses = new long[0];
+        this.numClauses = 0;
+    }
+
+    /**
+     * add the acceptance condition with respect to the given labeling to this one in place
+     * @param input some input labeling
+     */
+    public void add(Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[this.id];
+        if (status != null) {
+            this.add(input.getSemantics(), status, input.getTemplates(this.index));
+        }
+    }
+
+    /**
+     * add the acceptance condition with respect to a labeling to this one in place, the templates must refer to the
+     * index of this condition
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     */
+    public void add(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        this.addForbidden(templates.getForbidden(semantics, status));
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required != null) {
+            this.addClause(required);
+        }
+    }
+
+    /**
+     * a negated attacker is implied iff it is forbidden already and a clause iff it contains some minimal clause
+     * @param input some input labeling
+     * @return true if adding the labeling would not change this condition
+     */
+    public boolean entails(Input input) {
+        ArgumentStatus status = input.getStatuses(this.index)[this.id];
+        return status == null || this.entails(input.getSemantics(), status, input.getTemplates(this.index));
+    }
+
+    /**
+     * see entails(Input)
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if adding the labeling would not change this condition
+     */
+    public boolean entails(Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        if (this.isUnsatisfiable()) {
+            return true;
+        }
+        IndexSet forbidden = templates.getForbidden(semantics, status);
+        for (int b = forbidden.next(0); b >= 0; b = forbidden.next(b + 1)) {
+            if (!this.store.isForbidden(this.id, b)) {
+                return false;
+            }
+        }
+        IndexSet required = templates.getRequired(semantics, status);
+        if (required == null) {
+            return true;
+        }
+        for (int i = 0; i < this.numClauses; i++) {
+            if (this.isSubset(this.clauses[i], required)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the attackers are determined iff every argument is either forbidden or the only argument of some clause
+     * @return true if exactly one set of attackers satisfies this condition
+     */
+    public boolean isDetermined() {
+        if (this.isUnsatisfiable()) {
+            return false;
+        }
+        int numForbidden = this.store.getNumberOfForbidden(this.id);
+        if (numForbidden + this.numClauses < this.index.size()) {
+            return false;
+        }
+        int numForced = 0;
+        for (int i = 0; i < this.numClauses; i++) {
+            if (this.store.getLength(this.clauses[i]) == 1) {
+                numForced++;
+            }
+        }
+        return numForbidden + numForced == this.index.size();
+    }
+
+    /**
+     * the empty clause subsumes every other clause, so it is the only clause of an unsatisfiable condition
+     * @return true if no set of attackers satisfies this condition
+     */
+    public boolean isUnsatisfiable() {
+        return this.numClauses == 1 && this.store.getLength(this.clauses[0]) == 0;
+    }
+
+    /**
+     * forbid the given attackers and remove them from all clauses
+     * @param attackers ids of some arguments
+     */
+    private void addForbidden(IndexSet attackers) {
+        boolean added = false;
+        for (int b = attackers.next(0); b >= 0; b = attackers.next(b + 1)) {
+            added |= this.store.forbid(this.id, b);
+        }
+        if (!added) {
+            return;
+        }
+        // first remove all clauses with a forbidden attacker, then add them again without it and release the old ones
+        long[] reduced = REDUCED.get()[0];
+        int numReduced = 0;
+        for (int i = this.numClauses - 1; i >= 0; i--) {
+            long clause = this.clauses[i];
+            if (this.hasForbiddenAttacker(clause)) {
+                if (numReduced == reduced.length) {
+                    reduced = Arrays.copyOf(reduced, 2 * reduced.length);
+                    REDUCED.get()[0] = reduced;
+                }
+                reduced[numReduced++] = clause;
+                this.removeClause(i);
+            }
+        }
+        for (int r = 0; r < numReduced; r++) {
+            int length = this.store.getLength(reduced[r]);
+            int[] buffer = attackers(length);
+            int j = 0;
+            for (int i = 0; i < length; i++) {
+                int b = this.store.getAttacker(reduced[r], i);
+                if (!this.store.isForbidden(this.id, b)) {
+                    buffer[j++] = b;
+                }
+            }
+            this.insertClause(buffer, j);
+            this.store.removeClause(reduced[r]);
+        }
+    }
+
+    /**
+     * add a positive clause without its forbidden attackers, unless it is subsumed by another clause
+     * @param attackers ids of the arguments of the clause
+     */
+    private void addClause(IndexSet attackers) {
+        int[] buffer = attackers(attackers.size());
+        int length = 0;
+        for (int b = attackers.next(0); b >= 0; b = attackers.next(b + 1)) {
+            if (!this.store.isForbidden(this.id, b)) {
+                buffer[length++] = b;
+            }
+        }
+        this.insertClause(buffer, length);
+    }
+
+    /**
+     * add a positive clause without forbidden attackers, unless it is subsumed by another clause
+     * all clauses subsumed by the new clause are removed, the clause is only written to the store if it is kept
+     * @param attackers ids of the arguments of the clause in ascending order
+     * @param length the number of arguments of the clause
+     */
+    private void insertClause(int[] attackers, int length) {
+        for (int i = this.numClauses - 1; i >= 0; i--) {
+            long other = this.clauses[i];
+            if (this.isSubset(other, attackers, length)) {
+                return;
+            }
+            if (this.isSuperset(other, attackers, length)) {
+                this.store.removeClause(other);
+                this.removeClause(i);
+            }
+        }
+        if (this.numClauses == this.clauses.length) {
+            this.clauses = Arrays.copyOf(this.clauses, Math.max(4, 2 * this.clauses.length));
+        }
+        this.clauses[this.numClauses++] = this.store.addClause(attackers, length);
+    }
+
+    /**
+     * remove the clause at the given position by replacing it with the last clause
+     * @param i some position
+     */
+    private void removeClause(int i) {
+        this.clauses[i] = this.clauses[--this.numClauses];
+    }
+
+    /**
+     * @param clause address of some clause
+     * @return true if the clause contains a forbidden attacker
+     */
+    private boolean hasForbiddenAttacker(long clause) {
+        int length = this.store.getLength(clause);
+        for (int i = 0; i < length; i++) {
+            if (this.store.isForbidden(this.id, this.store.getAttacker(clause, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param clause address of some clause
+     * @param attackers some attackers in ascending order
+     * @param length the number of attackers
+     * @return true if every attacker of the clause is one of the given attackers
+     */
+    private boolean isSubset(long clause, int[] attackers, int length) {
+        int clauseLength = this.store.getLength(clause);
+        if (clauseLength > length) {
+            return false;
+        }
+        int j = 0;
+        for (int i = 0; i < clauseLength; i++) {
+            int b = this.store.getAttacker(clause, i);
+            while (j < length && attackers[j] < b) {
+                j++;
+            }
+            if (j == length || attackers[j] != b) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+
+    /**
+     * @param clause address of some clause
+     * @param attackers ids of some arguments
+     * @return true if every attacker of the clause is one of the given attackers
+     */
+    private boolean isSubset(long clause, IndexSet attackers) {
+        int length = this.store.getLength(clause);
+        for (int i = 0; i < length; i++) {
+            if (!attackers.contains(this.store.getAttacker(clause, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param clause address of some clause
+     * @param attackers some attackers in ascending order
+     * @param length the number of attackers
+     * @return true if every given attacker is an attacker of the clause
+     */
+    private boolean isSuperset(long clause, int[] attackers, int length) {
+        int clauseLength = this.store.getLength(clause);
+        if (clauseLength < length) {
+            return false;
+        }
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            while (j < clauseLength && this.store.getAttacker(clause, j) < attackers[i]) {
+                j++;
+            }
+            if (j == clauseLength || this.store.getAttacker(clause, j) != attackers[i]) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+
+    /**
+     * @param length the required length
+     * @return the scratch buffer for attackers of the current thread with at least the given length
+     */
+    private static int[] attackers(int length) {
+        int[][] buffer = ATTACKERS.get();
+        if (buffer[0].length < length) {
+            buffer[0] = new int[Math.max(length, 2 * buffer[0].length)];
+        }
+        return buffer[0];
+    }
+
+    /**
+     * return the acceptance condition, i.e. the conjunction of all negated forbidden attackers and all clauses
+     * @return the condition
+     */
+    public AssociativePlFormula getCondition() {
+        Collection<PlFormula> formulas = new ArrayList<>();
+        BitSet forbidden = this.getForbiddenAttackers();
+        for (int b = forbidden.nextSetBit(0); b >= 0; b = forbidden.nextSetBit(b + 1)) {
+            formulas.add(this.index.getNegation(b));
+        }
+        for (BitSet clause: this.getPositiveClauses()) {
+            Collection<PlFormula> attackers = new ArrayList<>();
+            for (int b = clause.nextSetBit(0); b >= 0; b = clause.nextSetBit(b + 1)) {
+                attackers.add(this.index.getProposition(b));
+            }
+            formulas.add(new Disjunction(attackers));
+        }
+        return new Conjunction(formulas);
+    }
+
+    public Argument getArgument() {
+        return this.argument;
+    }
+
+    /**
+     * @return the ids of all arguments that must not attack the argument, copied from the store
+     */
+    public BitSet getForbiddenAttackers() {
+        return this.store.getForbidden(this.id);
+    }
+
+    /**
+     * @return the ids of the arguments of each minimal positive clause, copied from the store
+     */
+    public Collection<BitSet> getPositiveClauses() {
+        Collection<BitSet> result = new ArrayList<>(this.numClauses);
+        for (int i = 0; i < this.numClauses; i++) {
+            BitSet clause = new BitSet(this.index.size());
+            for (int j = 0; j < this.store.getLength(this.clauses[i]); j++) {
+                clause.set(this.store.getAttacker(this.clauses[i], j));
+            }
+            result.add(clause);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of minimal positive clauses
+     */
+    public int getNumberOfClauses() {
+        return this.numClauses;
+    }
+
+    /**
+     * compute a set of attackers satisfying this acceptance condition in linear time
+     * @return the ids of the attackers, null if the condition is unsatisfiable
+     */
+    public BitSet getWitness() {
+        return ModelComputation.getWitnessOfClauses(this.getForbiddenAttackers(), this.getPositiveClauses());
+    }
+
+    /**
+     * count the sets of attackers satisfying this acceptance condition, including all optional attackers
+     * @return the exact number of partial attack relations of the argument
+     */
+    public BigInteger countModels() {
+        return ModelComputation.countModelsOfClauses(this.getForbiddenAttackers(), this.getPositiveClauses(), this.index.size());
+    }
+
+    /**
+     * compute the optional acceptance condition for this argument, i.e. the disjunction of all arguments not occurring
+     * in the condition
+     * @param arguments the set of all arguments
+     * @return the optional acceptance condition of this argument
+     */
+    public AssociativePlFormula getOptionalCondition(Collection<Argument> arguments) {
+        BitSet occurring = this.getForbiddenAttackers();
+        for (BitSet clause: this.getPositiveClauses()) {
+            occurring.or(clause);
+        }
+        Collection<PlFormula> optionalAtoms = new ArrayList<>();
+        for (Argument a: arguments) {
+            int id = this.index.getId(a);
+            if (!occurring.get(id)) {
+                optionalAtoms.add(this.index.getProposition(id));
+            }
+        }
+        return new Disjunction(optionalAtoms);
+    }
+
+    @Override
+    public String toString() {
+        return this.argument + ":\t\t" + this.getCondition();
+    }
+}
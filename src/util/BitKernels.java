@@ -0,0 +1,201 @@
+package util;
+
+/**
+ * Word-parallel kernels for sets of argument ids stored as bitsets, i.e. arrays of longs where bit i of word w stands
+ * for the id 64*w+i. Each kernel processes 64 ids per operation in a plain counted loop without data-dependent branches
+ * (early exits are only checked once per block of words), so that the JIT compiles it to SIMD instructions and
+ * Long.bitCount to popcnt. The arrays may have different lengths, missing words are treated as 0.
+ * By setting the system property learning.scalarKernels to true, all kernels fall back to the scalar versions in
+ * BitKernels.Scalar, which process one id at a time, e.g. to compare the results or the runtime.
+ *
+ * @author Lars Bengel
+ */
+public final class BitKernels {
+
+    /** if true, the scalar versions are used */
+    private static final boolean SCALAR = Boolean.getBoolean("learning.scalarKernels");
+    /** number of words between two checks for an early exit */
+    private static final int BLOCK = 8;
+
+    private BitKernels() {
+    }
+
+    /**
+     * target |= source, e.g. forbidden |= IN
+     * @param target some words, must be at least as long as source
+     * @param source some words
+     */
+    public static void or(long[] target, long[] source) {
+        if (SCALAR) {
+            Scalar.or(target, source);
+            return;
+        }
+        for (int w = 0; w < source.length; w++) {
+            target[w] |= source[w];
+        }
+    }
+
+    /**
+     * target &= ~source
+     * @param target some words
+     * @param source some words
+     */
+    public static void andNot(long[] target, long[] source) {
+        if (SCALAR) {
+            Scalar.andNot(target, source);
+            return;
+        }
+        int n = Math.min(target.length, source.length);
+        for (int w = 0; w < n; w++) {
+            target[w] &= ~source[w];
+        }
+    }
+
+    /**
+     * @param a some words
+     * @param b some words
+     * @return true if a and b share a set bit
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        if (SCALAR) {
+            return Scalar.intersects(a, b);
+        }
+        int n = Math.min(a.length, b.length);
+        for (int start = 0; start < n; start += BLOCK) {
+            int end = Math.min(n, start + BLOCK);
+            long any = 0L;
+            for (int w = start; w < end; w++) {
+                any |= a[w] & b[w];
+            }
+            if (any != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * check whether a intersects the complement of b, e.g. whether a clause contains an attacker that is not forbidden
+     * @param a some words
+     * @param b some words
+     * @return true if a has a set bit that is not set in b
+     */
+    public static boolean intersectsComplement(long[] a, long[] b) {
+        if (SCALAR) {
+            return Scalar.intersectsComplement(a, b);
+        }
+        for (int start = 0; start < a.length; start += BLOCK) {
+            int end = Math.min(a.length, start + BLOCK);
+            long any = 0L;
+            for (int w = start; w < end; w++) {
+                any |= a[w] & ~(w < b.length ? b[w] : 0L);
+            }
+            if (any != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param a some words
+     * @return the number of set bits
+     */
+    public static int cardinality(long[] a) {
+        if (SCALAR) {
+            return Scalar.cardinality(a);
+        }
+        int count = 0;
+        for (long word: a) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @param a some words
+     * @param b some words
+     * @return the number of bits set in a but not in b, e.g. the number of attackers of a clause that are not forbidden
+     */
+    public static int cardinalityAndNot(long[] a, long[] b) {
+        if (SCALAR) {
+            return Scalar.cardinalityAndNot(a, b);
+        }
+        int n = Math.min(a.length, b.length);
+        int count = 0;
+        for (int w = 0; w < n; w++) {
+            count += Long.bitCount(a[w] & ~b[w]);
+        }
+        for (int w = n; w < a.length; w++) {
+            count += Long.bitCount(a[w]);
+        }
+        return count;
+    }
+
+    /**
+     * the scalar versions of the kernels, processing one id at a time
+     */
+    public static final class Scalar {
+
+        private Scalar() {
+        }
+
+        public static void or(long[] target, long[] source) {
+            for (int i = 0; i < 64 * source.length; i++) {
+                if (get(source, i)) {
+                    target[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        public static void andNot(long[] target, long[] source) {
+            for (int i = 0; i < 64 * Math.min(target.length, source.length); i++) {
+                if (get(source, i)) {
+                    target[i >>> 6] &= ~(1L << i);
+                }
+            }
+        }
+
+        public static boolean intersects(long[] a, long[] b) {
+            for (int i = 0; i < 64 * Math.min(a.length, b.length); i++) {
+                if (get(a, i) && get(b, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public static boolean intersectsComplement(long[] a, long[] b) {
+            for (int i = 0; i < 64 * a.length; i++) {
+                if (get(a, i) && !get(b, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public static int cardinality(long[] a) {
+            int count = 0;
+            for (int i = 0; i < 64 * a.length; i++) {
+                if (get(a, i)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public static int cardinalityAndNot(long[] a, long[] b) {
+            int count = 0;
+            for (int i = 0; i < 64 * a.length; i++) {
+                if (get(a, i) && !get(b, i)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private static boolean get(long[] words, int i) {
+            return (i >>> 6) < words.length && (words[i >>> 6] & (1L << i)) != 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash-consing store for clauses over the arguments of an argument index
+ * A clause is a sorted array of distinct literals, the id i of an argument is represented by i+1 and its negation by
+ * -(i+1). Each distinct clause is stored only once and identified by a dense id, so that constraints only have to keep
+ * the ids of their clauses.
+ * Every clause has a reference count: intern and retain add a reference, release drops one, and a clause without
+ * references is removed. Its id is put on a free list and handed out again before a new id is used, so the store only
+ * grows with the clauses that are currently kept by some constraint, not with the clauses dropped so far, see
+ * ConstraintStore for the same idea for blocks. Reading the literals of a referenced clause is lock-free, all changes
+ * of the references are synchronized.
+ *
+ * @author Lars Bengel
+ */
+public class ClauseStore {
+
+    /** the id of each clause */
+    private final Map<Clause, Integer> ids;
+    /** the clause for each id, grown by copying, null for free ids */
+    private volatile Clause[] clauses;
+    /** the number of references of each clause, by id */
+    private int[] references;
+    /** number of ids handed out so far, including free ones */
+    private int used;
+    /** the free ids, the first numFree entries are set */
+    private int[] free;
+    /** number of free ids */
+    private int numFree;
+
+    /**
+     * initialize the empty store
+     */
+    public ClauseStore() {
+        this.ids = new HashMap<>();
+        this.clauses = new Clause[16];
+        this.references = new int[16];
+        this.used = 0;
+        this.free = new int[16];
+        this.numFree = 0;
+    }
+
+    /**
+     * return the id of the clause with the given literals and add a reference to it, the clause is added if it is not
+     * stored yet. The caller has to release the id once it no longer keeps it
+     * @param literals some literals, the array is sorted in place and must not be modified afterwards
+     * @return the id of the clause
+     */
+    public synchronized int intern(int[] literals) {
+        Arrays.sort(literals);
+        Clause clause = new Clause(literals);
+        Integer id = this.ids.get(clause);
+        if (id == null) {
+            id = this.newId();
+            this.clauses[id] = clause;
+            this.ids.put(clause, id);
+        }
+        this.references[id]++;
+        return id;
+    }
+
+    /**
+     * add a reference to the given clause, e.g. when a constraint takes it over from another one
+     * @param id id of some referenced clause
+     */
+    public synchronized void retain(int id) {
+        this.checkId(id);
+        this.references[id]++;
+    }
+
+    /**
+     * drop a reference to the given clause, the clause is removed and its id reused once it has no references left
+     * @param id id of some referenced clause
+     */
+    public synchronized void release(int id) {
+        this.checkId(id);
+        if (--this.references[id] > 0) {
+            return;
+        }
+        this.ids.remove(this.clauses[id]);
+        this.clauses[id] = null;
+        if (this.numFree == this.free.length) {
+            this.free = Arrays.copyOf(this.free, 2 * this.numFree);
+        }
+        this.free[this.numFree++] = id;
+    }
+
+    /**
+     * @param id id of some referenced clause
+     * @return the sorted literals of the clause, the array must not be modified
+     */
+    public int[] getLiterals(int id) {
+        Clause[] clauses = this.clauses;
+        Clause clause = id < 0 || id >= clauses.length ? null : clauses[id];
+        if (clause == null) {
+            throw new IllegalArgumentException("Unknown clause: " + id);
+        }
+        return clause.literals;
+    }
+
+    /**
+     * @return the number of distinct clauses in the store that are referenced
+     */
+    public synchronized int size() {
+        return this.used - this.numFree;
+    }
+
+    /**
+     * @return a free id if there is one, otherwise a new one
+     */
+    private int newId() {
+        if (this.numFree > 0) {
+            return this.free[--this.numFree];
+        }
+        int id = this.used;
+        if (id == this.clauses.length) {
+            this.references = Arrays.copyOf(this.references, 2 * id);
+            this.clauses = Arrays.copyOf(this.clauses, 2 * id);
+        }
+        this.used = id + 1;
+        return id;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= this.used || this.clauses[id] == null) {
+            throw new IllegalArgumentException("Unknown clause: " + id);
+        }
+    }
+
+    /**
+     * immutable clause with a cached hash code, used as key of the store
+     */
+    private static final class Clause {
+        private final int[] literals;
+        private final int hash;
+
+        private Clause(int[] literals) {
+            this.literals = literals;
+            this.hash = Arrays.hashCode(literals);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Clause && this.hash == ((Clause) o).hash && Arrays.equals(this.literals, ((Clause) o).literals);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
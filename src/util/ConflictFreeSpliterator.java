@@ -0,0 +1,191 @@
+package util;
+
+import org.tweetyproject.arg.dung.semantics.Extension;
+import org.tweetyproject.arg.dung.syntax.Attack;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over all conflict-free sets of an argumentation framework
+ * The sets are generated by a depth-first search where arguments are only added in increasing order of their ids.
+ * Each node of the search tree is a conflict-free set together with the arguments that may still be added to it, i.e.,
+ * arguments with a larger id that are not in conflict with the set. Thus, every conflict-free set is generated exactly
+ * once. The open nodes are kept on a stack with the next node on top, its children are pushed in reverse order of their
+ * ids. A child with a lower id has more candidates than its later siblings, so it has about as many sets below it as all
+ * of them together. Thus, the spliterator is split by handing over the open nodes from the top of the stack until they
+ * hold about half of the sets, or, if only one node is open, the subtree of its lowest child. In both cases the prefix
+ * gets the sets that would have been returned first.
+ *
+ * @author Lars Bengel
+ */
+public class ConflictFreeSpliterator implements Spliterator<Extension> {
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the ids of the arguments in conflict with each argument, by id */
+    private final BitSet[] conflicts;
+    /** the open nodes of the search tree */
+    private final Deque<Node> stack;
+
+    private ConflictFreeSpliterator(ArgumentIndex index, BitSet[] conflicts, Deque<Node> stack) {
+        this.index = index;
+        this.conflicts = conflicts;
+        this.stack = stack;
+    }
+
+    /**
+     * create the spliterator over all conflict-free sets of the given framework
+     * @param theory some argumentation framework
+     * @return the spliterator over all conflict-free sets
+     */
+    public static ConflictFreeSpliterator of(DungTheory theory) {
+        ArgumentIndex index = new ArgumentIndex(theory);
+        int n = index.size();
+        BitSet[] conflicts = new BitSet[n];
+        for (int a = 0; a < n; a++) {
+            conflicts[a] = new BitSet(n);
+        }
+        for (Attack attack: theory.getAttacks()) {
+            int attacker = index.getId(attack.getAttacker());
+            int attacked = index.getId(attack.getAttacked());
+            conflicts[attacker].set(attacked);
+            conflicts[attacked].set(attacker);
+        }
+        // self-attacking arguments are never part of a conflict-free set
+        BitSet candidates = new BitSet(n);
+        for (int a = 0; a < n; a++) {
+            if (!conflicts[a].get(a)) {
+                candidates.set(a);
+            }
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(new BitSet(n), candidates, candidates, true));
+        return new ConflictFreeSpliterator(index, conflicts, stack);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Extension> action) {
+        while (!this.stack.isEmpty()) {
+            Node node = this.stack.pop();
+            // push the children in reverse order, so that they are visited in increasing order
+            for (int c = node.branches.previousSetBit(node.branches.length()); c >= 0; c = node.branches.previousSetBit(c - 1)) {
+                BitSet set = (BitSet) node.set.clone();
+                set.set(c);
+                BitSet candidates = (BitSet) node.candidates.clone();
+                candidates.clear(0, c + 1);
+                candidates.andNot(this.conflicts[c]);
+                this.stack.push(new Node(set, candidates, candidates, true));
+            }
+            if (node.emit) {
+                action.accept(this.toExtension(node.set));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<Extension> trySplit() {
+        Deque<Node> prefix = new ArrayDeque<>();
+        if (this.stack.size() > 1) {
+            // hand over the nodes from the top as long as that gets closer to half of the sets, but at least one node
+            // and not all of them
+            double total = 0;
+            for (Node node: this.stack) {
+                total += Math.scalb(1.0, node.getWeight());
+            }
+            double handedOver = 0;
+            while (this.stack.size() > 1) {
+                double size = Math.scalb(1.0, this.stack.peek().getWeight());
+                if (!prefix.isEmpty() && handedOver + size / 2 > total / 2) {
+                    break;
+                }
+                handedOver += size;
+                prefix.addLast(this.stack.pop());
+            }
+        } else if (this.stack.size() == 1 && this.stack.peek().branches.cardinality() > 1) {
+            // hand over the subtree of the lowest child of the only node, it is about as large as those of all others
+            Node node = this.stack.pop();
+            int lowest = node.branches.nextSetBit(0);
+            BitSet lower = new BitSet();
+            lower.set(lowest);
+            BitSet upper = (BitSet) node.branches.clone();
+            upper.clear(lowest);
+            prefix.push(new Node(node.set, node.candidates, lower, node.emit));
+            this.stack.push(new Node(node.set, node.candidates, upper, false));
+        } else {
+            return null;
+        }
+        return new ConflictFreeSpliterator(this.index, this.conflicts, prefix);
+    }
+
+    @Override
+    public long estimateSize() {
+        // each open node has at most 2^k conflict-free sets below it, where k is its weight
+        long size = 0;
+        for (Node node: this.stack) {
+            int k = node.getWeight();
+            if (k >= Long.SIZE - 2) {
+                return Long.MAX_VALUE;
+            }
+            size += 1L << k;
+            if (size < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * @param set ids of some arguments
+     * @return the extension of the arguments with the given ids
+     */
+    private Extension toExtension(BitSet set) {
+        Extension ext = new Extension();
+        for (int a = set.nextSetBit(0); a >= 0; a = set.nextSetBit(a + 1)) {
+            ext.add(this.index.getArgument(a));
+        }
+        return ext;
+    }
+
+    /**
+     * node of the search tree
+     */
+    private static class Node {
+        /** ids of the arguments in the conflict-free set of this node */
+        private final BitSet set;
+        /** ids of the arguments that may be added to the set */
+        private final BitSet candidates;
+        /** ids of the arguments whose subtrees belong to this node, a subset of the candidates */
+        private final BitSet branches;
+        /** whether the set of this node is still to be returned */
+        private final boolean emit;
+
+        private Node(BitSet set, BitSet candidates, BitSet branches, boolean emit) {
+            this.set = set;
+            this.candidates = candidates;
+            this.branches = branches;
+            this.emit = emit;
+        }
+
+        /**
+         * @return the number of candidates from the lowest branch on, i.e. the size of the subtree is at most 2 to the
+         * power of the weight
+         */
+        private int getWeight() {
+            int lowest = this.branches.nextSetBit(0);
+            if (lowest < 0) {
+                return 0;
+            }
+            return this.candidates.get(lowest, Math.max(lowest, this.candidates.length())).cardinality();
+        }
+    }
+}
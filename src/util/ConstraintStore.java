@@ -0,0 +1,405 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Storage outside of the heap for the attack constraints of a large number of arguments
+ * Everything is kept in blocks of ints whose size is a power of two. The blocks are cut from segments that double in
+ * size, a block is addressed by the index of its segment in the upper and its position in the lower 32 bits. A block
+ * that is no longer needed is put on the free list of its size and handed out again before any new space is used, the
+ * link to the next free block is kept in the freed block itself. Thus, the store only grows with the constraints that
+ * are currently kept, not with the clauses dropped so far.
+ * A clause is stored as its length followed by its sorted attacker ids. The forbidden attackers of an argument are
+ * stored as sorted ids as long as that takes fewer ints than a row of bits over all arguments, and as such a row
+ * afterwards, so an argument with few forbidden attackers only takes a few ints.
+ * Everything is either kept in direct buffers or, if a directory is given, in memory-mapped temporary files in that
+ * directory, which are deleted when the JVM exits. In both cases the data does not count towards the heap, direct
+ * buffers are limited by -XX:MaxDirectMemorySize though. Different arguments may be modified concurrently.
+ *
+ * @author Lars Bengel
+ */
+public class ConstraintStore {
+
+    /** number of ints of the first segment */
+    private static final int INITIAL_SEGMENT_INTS = 1 << 16;
+    /** maximum number of ints per segment */
+    private static final int MAX_SEGMENT_INTS = 1 << 28;
+    /** the size class of the largest block, a block of size class c has 2^c ints */
+    private static final int MAX_CLASS = 28;
+    /** address that refers to no block */
+    private static final long NONE = -1;
+
+    /** the number of arguments */
+    private final int numArguments;
+    /** the directory of the mapped files, null for direct buffers */
+    private final Path directory;
+    /** the segments, only the last one still has space that has never been used */
+    private volatile IntBuffer[] segments;
+    /** number of ints used in the last segment */
+    private int used;
+    /** the first free block of each size class, NONE if there is none */
+    private final long[] free;
+    /** number of ints in free blocks */
+    private long freeInts;
+
+    /** the block of the forbidden attackers of each argument, by id, NONE if there are none */
+    private final long[] forbiddenBlocks;
+    /** the number of forbidden attackers of each argument, by id */
+    private final int[] forbiddenCounts;
+    /** the number of ints of a row of bits over all arguments, more forbidden attackers are stored as such a row */
+    private final int rowInts;
+
+    private ConstraintStore(int numArguments, Path directory) {
+        this.numArguments = numArguments;
+        this.directory = directory;
+        this.segments = new IntBuffer[]{this.newSegment(INITIAL_SEGMENT_INTS)};
+        this.used = 0;
+        this.free = new long[MAX_CLASS + 1];
+        Arrays.fill(this.free, NONE);
+        this.forbiddenBlocks = new long[numArguments];
+        Arrays.fill(this.forbiddenBlocks, NONE);
+        this.forbiddenCounts = new int[numArguments];
+        this.rowInts = Math.max(1, (numArguments + 31) >>> 5);
+    }
+
+    /**
+     * @param numArguments the number of arguments
+     * @return a store that keeps everything in direct buffers
+     */
+    public static ConstraintStore offHeap(int numArguments) {
+        return new ConstraintStore(numArguments, null);
+    }
+
+    /**
+     * @param numArguments the number of arguments
+     * @param directory some directory for the memory-mapped files
+     * @return a store that keeps everything in memory-mapped files
+     */
+    public static ConstraintStore mapped(int numArguments, Path directory) {
+        return new ConstraintStore(numArguments, directory);
+    }
+
+    /**
+     * @return the number of arguments
+     */
+    public int getNumberOfArguments() {
+        return this.numArguments;
+    }
+
+    /**
+     * store the given clause
+     * @param attackers some attacker ids in ascending order
+     * @param length the number of attackers
+     * @return the address of the clause
+     */
+    public long addClause(int[] attackers, int length) {
+        if (length + 1 > MAX_SEGMENT_INTS) {
+            throw new IllegalArgumentException("Clause too long: " + length);
+        }
+        long clause = this.allocate(length + 1);
+        IntBuffer segment = this.getSegment(clause);
+        int offset = (int) clause;
+        segment.put(offset, length);
+        for (int i = 0; i < length; i++) {
+            segment.put(offset + 1 + i, attackers[i]);
+        }
+        return clause;
+    }
+
+    /**
+     * release the given clause, its space is reused for later clauses
+     * @param clause the address of some clause, it must not be used afterwards
+     */
+    public void removeClause(long clause) {
+        this.release(clause, sizeClass(this.getLength(clause) + 1));
+    }
+
+    /**
+     * @param clause the address of some clause
+     * @return the number of attackers of the clause
+     */
+    public int getLength(long clause) {
+        return this.getSegment(clause).get((int) clause);
+    }
+
+    /**
+     * @param clause the address of some clause
+     * @param i some position
+     * @return the i-th attacker of the clause
+     */
+    public int getAttacker(long clause, int i) {
+        return this.getSegment(clause).get((int) clause + 1 + i);
+    }
+
+    /**
+     * @param arg id of some argument
+     * @return the number of forbidden attackers of the argument
+     */
+    public int getNumberOfForbidden(int arg) {
+        return this.forbiddenCounts[arg];
+    }
+
+    /**
+     * @param arg id of some argument
+     * @param attacker id of some argument
+     * @return true if the attacker is forbidden for the argument
+     */
+    public boolean isForbidden(int arg, int attacker) {
+        int count = this.forbiddenCounts[arg];
+        if (count == 0) {
+            return false;
+        }
+        long block = this.forbiddenBlocks[arg];
+        IntBuffer segment = this.getSegment(block);
+        int offset = (int) block;
+        if (count > this.rowInts) {
+            return (segment.get(offset + (attacker >>> 5)) & (1 << attacker)) != 0;
+        }
+        return search(segment, offset, count, attacker) >= 0;
+    }
+
+    /**
+     * forbid the given attacker for the given argument
+     * @param arg id of some argument
+     * @param attacker id of some argument
+     * @return true if the attacker was not forbidden before
+     */
+    public boolean forbid(int arg, int attacker) {
+        int count = this.forbiddenCounts[arg];
+        long block = this.forbiddenBlocks[arg];
+        if (count > this.rowInts) {
+            IntBuffer segment = this.getSegment(block);
+            int position = (int) block + (attacker >>> 5);
+            int word = segment.get(position);
+            if ((word & (1 << attacker)) != 0) {
+                return false;
+            }
+            segment.put(position, word | (1 << attacker));
+            this.forbiddenCounts[arg] = count + 1;
+            return true;
+        }
+        int position = count == 0 ? -1 : search(this.getSegment(block), (int) block, count, attacker);
+        if (position >= 0) {
+            return false;
+        }
+        int insertion = -position - 1;
+        if (count == this.rowInts) {
+            this.toRow(arg, attacker);
+        } else {
+            if (count == 0 || (count >= 2 && Integer.bitCount(count) == 1)) {
+                // the block is full, move the ids to a block of twice the size
+                long grown = this.allocate(count + 1);
+                if (count > 0) {
+                    copy(this.getSegment(block), (int) block, this.getSegment(grown), (int) grown, count);
+                    this.release(block, sizeClass(count));
+                }
+                block = grown;
+                this.forbiddenBlocks[arg] = block;
+            }
+            IntBuffer segment = this.getSegment(block);
+            int offset = (int) block;
+            for (int i = count; i > insertion; i--) {
+                segment.put(offset + i, segment.get(offset + i - 1));
+            }
+            segment.put(offset + insertion, attacker);
+        }
+        this.forbiddenCounts[arg] = count + 1;
+        return true;
+    }
+
+    /**
+     * @param arg id of some argument
+     * @return the ids of the forbidden attackers of the argument, copied from the store
+     */
+    public BitSet getForbidden(int arg) {
+        BitSet result = new BitSet(this.numArguments);
+        int count = this.forbiddenCounts[arg];
+        if (count == 0) {
+            return result;
+        }
+        long block = this.forbiddenBlocks[arg];
+        IntBuffer segment = this.getSegment(block);
+        int offset = (int) block;
+        if (count > this.rowInts) {
+            for (int w = 0; w < this.rowInts; w++) {
+                int word = segment.get(offset + w);
+                for (; word != 0; word &= word - 1) {
+                    result.set((w << 5) + Integer.numberOfTrailingZeros(word));
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                result.set(segment.get(offset + i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * replace the sorted ids of the forbidden attackers of the given argument by a row of bits
+     * @param arg id of some argument
+     * @param attacker id of a new forbidden attacker
+     */
+    private void toRow(int arg, int attacker) {
+        long block = this.forbiddenBlocks[arg];
+        int count = this.forbiddenCounts[arg];
+        long row = this.allocate(this.rowInts);
+        IntBuffer rowSegment = this.getSegment(row);
+        int rowOffset = (int) row;
+        // a reused block still holds old data
+        for (int w = 0; w < this.rowInts; w++) {
+            rowSegment.put(rowOffset + w, 0);
+        }
+        IntBuffer segment = this.getSegment(block);
+        for (int i = 0; i <= count; i++) {
+            int b = i < count ? segment.get((int) block + i) : attacker;
+            int position = rowOffset + (b >>> 5);
+            rowSegment.put(position, rowSegment.get(position) | (1 << b));
+        }
+        this.release(block, sizeClass(count));
+        this.forbiddenBlocks[arg] = row;
+    }
+
+    /**
+     * @return the number of ints taken up by the store, including free blocks and the unused ends of previous segments
+     */
+    public synchronized long getSize() {
+        long size = this.used;
+        for (int s = 0; s < this.segments.length - 1; s++) {
+            size += this.segments[s].capacity();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of ints in free blocks, they are reused before the store grows
+     */
+    public synchronized long getFreeSize() {
+        return this.freeInts;
+    }
+
+    /**
+     * hand out a free block of the size class of the given number of ints or cut a new one from the last segment
+     * @param ints the required number of ints
+     * @return the address of the block
+     */
+    private synchronized long allocate(int ints) {
+        int c = sizeClass(ints);
+        long block = this.free[c];
+        if (block != NONE) {
+            IntBuffer segment = this.getSegment(block);
+            this.free[c] = ((long) segment.get((int) block) << 32) | (segment.get((int) block + 1) & 0xFFFFFFFFL);
+            this.freeInts -= 1 << c;
+            return block;
+        }
+        IntBuffer[] segments = this.segments;
+        int size = 1 << c;
+        if (this.used + size > segments[segments.length - 1].capacity()) {
+            // the rest of the last segment is cut into free blocks, the sizes are even, so nothing is left over
+            int capacity = segments[segments.length - 1].capacity();
+            for (int rest = capacity - this.used; rest >= 2; rest = capacity - this.used) {
+                int restClass = 31 - Integer.numberOfLeadingZeros(rest);
+                this.release(((long) (segments.length - 1) << 32) | this.used, restClass);
+                this.used += 1 << restClass;
+            }
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segments.length - 1] = this.newSegment((int) Math.max(size, Math.min(MAX_SEGMENT_INTS, 2L * capacity)));
+            this.used = 0;
+            this.segments = segments;
+        }
+        block = ((long) (segments.length - 1) << 32) | this.used;
+        this.used += size;
+        return block;
+    }
+
+    /**
+     * put the given block on the free list of its size class
+     * @param block the address of some block
+     * @param c the size class of the block
+     */
+    private synchronized void release(long block, int c) {
+        IntBuffer segment = this.getSegment(block);
+        segment.put((int) block, (int) (this.free[c] >>> 32));
+        segment.put((int) block + 1, (int) this.free[c]);
+        this.free[c] = block;
+        this.freeInts += 1 << c;
+    }
+
+    /**
+     * @param ints some number of ints
+     * @return the smallest size class whose blocks hold the given number of ints, blocks hold at least two ints
+     */
+    private static int sizeClass(int ints) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(ints - 1));
+    }
+
+    private IntBuffer getSegment(long block) {
+        return this.segments[(int) (block >>> 32)];
+    }
+
+    /**
+     * @param segment some segment
+     * @param offset the position of some sorted ids in the segment
+     * @param length the number of ids
+     * @param id some id
+     * @return the position of the id relative to the offset, or -(insertion point) - 1 if it is not contained
+     */
+    private static int search(IntBuffer segment, int offset, int length, int id) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = segment.get(offset + mid);
+            if (value < id) {
+                low = mid + 1;
+            } else if (value > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static void copy(IntBuffer from, int fromOffset, IntBuffer to, int toOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            to.put(toOffset + i, from.get(fromOffset + i));
+        }
+    }
+
+    /**
+     * @param ints the number of ints of the segment
+     * @return a new segment
+     */
+    private IntBuffer newSegment(int ints) {
+        if (this.directory == null) {
+            return ByteBuffer.allocateDirect(4 * ints).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        try (FileChannel channel = FileChannel.open(this.newFile("store"), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, 4L * ints).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path newFile(String prefix) {
+        try {
+            File file = Files.createTempFile(this.directory, prefix, ".bin").toFile();
+            file.deleteOnExit();
+            return file.toPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package util;
+
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Spliterator over all argumentation frameworks satisfying the attack constraints of all arguments
+ * The frameworks are the cartesian product of the partial attack relations of each argument. Each argument has a
+ * resettable enumerator over its partial attack relations, see ModelEnumerator, and the frameworks are enumerated like
+ * an odometer over these enumerators, where the last argument changes fastest. Only the current partial attack relation
+ * of each argument is stored, so neither the time to the first framework nor the memory depend on the number of models.
+ * A split hands over the remaining frameworks with the current relation of the first argument that has another one
+ * left, this spliterator continues with the next relation of that argument.
+ *
+ * @author Lars Bengel
+ */
+public class FrameworkSpliterator implements Spliterator<DungTheory> {
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the enumerator of the partial attack relations of each argument, by id */
+    private final ModelEnumerator[] relations;
+    /** the arguments below this id keep their current relation for this spliterator */
+    private final int first;
+    /** true once the enumerators are at the next framework */
+    private boolean started;
+    /** true once all frameworks have been enumerated */
+    private boolean exhausted;
+    /** estimated number of remaining frameworks */
+    private long estimate;
+
+    private FrameworkSpliterator(ArgumentIndex index, ModelEnumerator[] relations, int first, boolean started, long estimate) {
+        this.index = index;
+        this.relations = relations;
+        this.first = first;
+        this.started = started;
+        this.estimate = estimate;
+    }
+
+    /**
+     * create the spliterator over all frameworks satisfying the given attack constraints
+     * the constraint of each argument is given by its forbidden attackers and positive clauses
+     * @param index the index of all arguments
+     * @param forbiddenOf the ids of the forbidden attackers of the argument with the given id
+     * @param clausesOf the positive clauses of the argument with the given id
+     * @return the spliterator over all frameworks
+     */
+    public static FrameworkSpliterator of(ArgumentIndex index, IntFunction<BitSet> forbiddenOf, IntFunction<Collection<BitSet>> clausesOf) {
+        int n = index.size();
+        ModelEnumerator[] relations = new ModelEnumerator[n];
+        IntStream.range(0, n).parallel().forEach(a -> relations[a] = new ModelEnumerator(forbiddenOf.apply(a), clausesOf.apply(a), n));
+        return new FrameworkSpliterator(index, relations, 0, false, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super DungTheory> action) {
+        this.start();
+        if (this.exhausted) {
+            return false;
+        }
+        action.accept(this.toFramework());
+        // advance the odometer, an argument that has no relation left starts over and carries to the previous one
+        for (int a = this.relations.length - 1; a >= this.first; a--) {
+            if (this.relations[a].next()) {
+                return true;
+            }
+            this.relations[a].reset();
+            this.relations[a].next();
+        }
+        this.exhausted = true;
+        return true;
+    }
+
+    @Override
+    public Spliterator<DungTheory> trySplit() {
+        this.start();
+        if (this.exhausted) {
+            return null;
+        }
+        for (int a = this.first; a < this.relations.length; a++) {
+            ModelEnumerator successor = this.relations[a].copy();
+            if (!successor.next()) {
+                continue;
+            }
+            // the prefix keeps the current relation of a and continues with the current relations of all later arguments
+            ModelEnumerator[] prefix = this.relations.clone();
+            for (int b = this.first; b < prefix.length; b++) {
+                prefix[b] = this.relations[b].copy();
+            }
+            // this spliterator continues with the next relation of a and the first relations of all later arguments
+            this.relations[a] = successor;
+            for (int b = a + 1; b < this.relations.length; b++) {
+                this.relations[b].reset();
+                this.relations[b].next();
+            }
+            this.estimate >>>= 1;
+            return new FrameworkSpliterator(this.index, prefix, a + 1, true, this.estimate);
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.exhausted ? 0 : this.estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * move all enumerators to the first framework, unless that has been done before
+     */
+    private void start() {
+        if (this.started) {
+            return;
+        }
+        this.started = true;
+        for (int a = this.first; a < this.relations.length; a++) {
+            this.relations[a].reset();
+            if (!this.relations[a].next()) {
+                // some argument has no partial attack relation, so there is no framework at all
+                this.exhausted = true;
+            }
+        }
+    }
+
+    /**
+     * @return the framework with the current partial attack relation of each argument
+     */
+    private DungTheory toFramework() {
+        DungTheory theory = new DungTheory();
+        theory.addAll(this.index.getArguments());
+        for (int a = 0; a < this.relations.length; a++) {
+            Argument arg = this.index.getArgument(a);
+            BitSet attackers = this.relations[a].getModel();
+            for (int b = attackers.nextSetBit(0); b >= 0; b = attackers.nextSetBit(b + 1)) {
+                theory.addAttack(this.index.getArgument(b), arg);
+            }
+        }
+        return theory;
+    }
+}
@@ -0,0 +1,120 @@
+package util;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import syntax.AttackConstraint;
+import syntax.ConstraintTemplates;
+import syntax.Input;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of which arguments have a uniquely determined set of attackers while labelings are learned
+ * The tracker does not keep a copy of the constraints, it asks the constraint of an argument whether its attackers are
+ * determined or it has become unsatisfiable after it was updated, and whether it already implies the constraint of a
+ * new labeling. Thus, the forbidden and forced attackers are only stored once, in the representation of the constraint.
+ * Only the counts of undetermined and unsatisfiable arguments are kept, so whether the framework is identified is
+ * known in constant time. The state of different arguments may be updated concurrently.
+ *
+ * @author Lars Bengel
+ */
+public class IdentificationTracker {
+
+    /** the constraint of each argument, by id */
+    private final AttackConstraint<?>[] constraints;
+    /** whether the attackers of each argument are uniquely determined, by id */
+    private final boolean[] determined;
+    /** whether the constraint of each argument is unsatisfiable, by id */
+    private final boolean[] conflicting;
+
+    /** number of arguments whose attackers are not determined yet */
+    private final AtomicInteger undetermined;
+    /** number of arguments whose constraint is unsatisfiable */
+    private final AtomicInteger conflicts;
+
+    /**
+     * initialize the tracker for the given constraints, they must not contain any labelings yet
+     * @param constraints the constraint of each argument, by id
+     */
+    public IdentificationTracker(AttackConstraint<?>[] constraints) {
+        this.constraints = constraints;
+        this.determined = new boolean[constraints.length];
+        this.conflicting = new boolean[constraints.length];
+        this.undetermined = new AtomicInteger(constraints.length);
+        this.conflicts = new AtomicInteger(0);
+    }
+
+    /**
+     * update the state of the given argument after a labeling has been added to its constraint
+     * @param arg id of some argument
+     */
+    public void update(int arg) {
+        if (this.conflicting[arg]) {
+            return;
+        }
+        AttackConstraint<?> constraint = this.constraints[arg];
+        if (constraint.isUnsatisfiable()) {
+            this.conflicting[arg] = true;
+            this.conflicts.incrementAndGet();
+        } else if (!this.determined[arg] && constraint.isDetermined()) {
+            this.determined[arg] = true;
+            this.undetermined.decrementAndGet();
+        }
+    }
+
+    /**
+     * check whether the constraint of the given argument wrt. the given labeling is already implied by its constraint
+     * @param arg id of some argument
+     * @param labeling some labeling
+     * @return true if learning the labeling would not change the state of the argument
+     */
+    public boolean entails(int arg, Input labeling) {
+        return this.conflicting[arg] || this.constraints[arg].entails(labeling);
+    }
+
+    /**
+     * see entails(int, Input), the labeling is given by its semantics, the status of the argument and its templates
+     * @param arg id of some argument
+     * @param semantics the semantics of some labeling
+     * @param status the status of the argument in the labeling
+     * @param templates the templates of the labeling
+     * @return true if learning the labeling would not change the state of the argument
+     */
+    public boolean entails(int arg, Semantics semantics, ArgumentStatus status, ConstraintTemplates templates) {
+        return this.conflicting[arg] || this.constraints[arg].entails(semantics, status, templates);
+    }
+
+    /**
+     * @param labeling some labeling
+     * @return true if learning the labeling would not change the state of any argument
+     */
+    public boolean entails(Input labeling) {
+        for (int a = 0; a < this.constraints.length; a++) {
+            if (!this.entails(a, labeling)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if exactly one framework satisfies all constraints
+     */
+    public boolean isIdentified() {
+        return this.undetermined.get() == 0 && this.conflicts.get() == 0;
+    }
+
+    /**
+     * @return true if no framework satisfies all constraints
+     */
+    public boolean isUnsatisfiable() {
+        return this.conflicts.get() > 0;
+    }
+
+    /**
+     * @return the number of arguments whose attackers are not uniquely determined yet
+     */
+    public int getNumberOfUndeterminedArguments() {
+        return this.undetermined.get();
+    }
+}
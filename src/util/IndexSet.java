@@ -0,0 +1,297 @@
+package util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of argument indices from the range [0, universe)
+ * Depending on the density of the set, the indices are either stored as a bitset (dense layout)
+ * or as a sorted array of indices (sparse layout)
+ * Operations on two dense sets are computed word by word with the kernels of BitKernels
+ *
+ * @author Lars Bengel
+ */
+public final class IndexSet {
+
+    /** a sparse entry costs 32 bits and a dense entry 1 bit, so we switch layouts at this density */
+    private static final int SPARSE_FACTOR = 32;
+
+    /** size of the range the indices are taken from */
+    private final int universe;
+    /** bitset of the indices, only set for the dense layout */
+    private final long[] words;
+    /** sorted indices, only set for the sparse layout */
+    private final int[] indices;
+    /** number of indices in this set */
+    private final int cardinality;
+    /** cached hash code */
+    private int hash;
+
+    private IndexSet(int universe, long[] words, int[] indices, int cardinality) {
+        this.universe = universe;
+        this.words = words;
+        this.indices = indices;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * create the set of indices contained in the given bitset, the layout is chosen based on the density
+     * @param bits some bitset
+     * @param universe size of the index range
+     * @return the index set
+     */
+    public static IndexSet of(BitSet bits, int universe) {
+        int cardinality = bits.cardinality();
+        if ((long) cardinality * SPARSE_FACTOR < universe) {
+            return new IndexSet(universe, null, bits.stream().toArray(), cardinality);
+        }
+        return new IndexSet(universe, Arrays.copyOf(bits.toLongArray(), wordCount(universe)), null, cardinality);
+    }
+
+    /**
+     * create the set of the given indices, the layout is chosen based on the density
+     * @param indices some indices
+     * @param universe size of the index range
+     * @return the index set
+     */
+    public static IndexSet of(int[] indices, int universe) {
+        BitSet bits = new BitSet(universe);
+        for (int i: indices) {
+            bits.set(i);
+        }
+        return of(bits, universe);
+    }
+
+    /**
+     * create the set of indices contained in the given words, the layout is chosen based on the density
+     * @param words some words, owned by the new set if it is dense
+     * @param universe size of the index range
+     * @return the index set
+     */
+    private static IndexSet of(long[] words, int universe) {
+        int cardinality = BitKernels.cardinality(words);
+        if ((long) cardinality * SPARSE_FACTOR < universe) {
+            int[] indices = new int[cardinality];
+            int j = 0;
+            for (int i = nextSetBit(words, 0); i >= 0; i = nextSetBit(words, i + 1)) {
+                indices[j++] = i;
+            }
+            return new IndexSet(universe, null, indices, cardinality);
+        }
+        return new IndexSet(universe, words, null, cardinality);
+    }
+
+    /**
+     * @param universe size of the index range
+     * @return the empty index set
+     */
+    public static IndexSet empty(int universe) {
+        return new IndexSet(universe, null, new int[0], 0);
+    }
+
+    private static int wordCount(int universe) {
+        return (universe + 63) >>> 6;
+    }
+
+    /**
+     * @return size of the index range of this set
+     */
+    public int getUniverse() {
+        return universe;
+    }
+
+    /**
+     * @return true if the set is stored as a bitset
+     */
+    public boolean isDense() {
+        return words != null;
+    }
+
+    public int size() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int index) {
+        if (index < 0 || index >= universe) {
+            return false;
+        }
+        if (words != null) {
+            return (words[index >>> 6] & (1L << index)) != 0;
+        }
+        return Arrays.binarySearch(indices, index) >= 0;
+    }
+
+    /**
+     * check whether every index of this set is also contained in the given set
+     * @param other some index set
+     * @return true if this set is a subset of other
+     */
+    public boolean isSubsetOf(IndexSet other) {
+        if (this.cardinality > other.cardinality) {
+            return false;
+        }
+        if (this.words != null && other.words != null) {
+            return !BitKernels.intersectsComplement(this.words, other.words);
+        }
+        if (this.words == null) {
+            for (int i: this.indices) {
+                if (!other.contains(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = nextSetBit(this.words, 0); i >= 0; i = nextSetBit(this.words, i + 1)) {
+            if (!other.contains(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other some index set
+     * @return true if both sets share at least one index
+     */
+    public boolean intersects(IndexSet other) {
+        if (this.words != null && other.words != null) {
+            return BitKernels.intersects(this.words, other.words);
+        }
+        IndexSet sparse = this.words == null ? this : other;
+        IndexSet remaining = sparse == this ? other : this;
+        for (int i: sparse.indices) {
+            if (remaining.contains(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public IndexSet union(IndexSet other) {
+        if (this.isEmpty() && other.universe >= this.universe) {
+            return other;
+        }
+        if (other.isSubsetOf(this)) {
+            return this;
+        }
+        if (this.words != null && other.words != null) {
+            IndexSet larger = this.words.length >= other.words.length ? this : other;
+            long[] words = larger.words.clone();
+            BitKernels.or(words, (larger == this ? other : this).words);
+            return of(words, Math.max(this.universe, other.universe));
+        }
+        BitSet bits = this.toBitSet();
+        bits.or(other.toBitSet());
+        return of(bits, Math.max(this.universe, other.universe));
+    }
+
+    public IndexSet minus(IndexSet other) {
+        if (!this.intersects(other)) {
+            return this;
+        }
+        if (this.words != null && other.words != null) {
+            long[] words = this.words.clone();
+            BitKernels.andNot(words, other.words);
+            return of(words, this.universe);
+        }
+        BitSet bits = this.toBitSet();
+        bits.andNot(other.toBitSet());
+        return of(bits, this.universe);
+    }
+
+    public BitSet toBitSet() {
+        if (words != null) {
+            return BitSet.valueOf(words);
+        }
+        BitSet bits = new BitSet(universe);
+        for (int i: indices) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
+    /**
+     * @return the indices of this set in ascending order
+     */
+    public int[] toArray() {
+        if (words != null) {
+            return stream().toArray();
+        }
+        return indices.clone();
+    }
+
+    /**
+     * @return the indices of this set in ascending order
+     */
+    public IntStream stream() {
+        if (words != null) {
+            return BitSet.valueOf(words).stream();
+        }
+        return Arrays.stream(indices);
+    }
+
+    /**
+     * iterate over the indices of this set, i.e. for (int i = set.next(0); i >= 0; i = set.next(i+1))
+     * @param from some index
+     * @return the smallest index in this set that is greater or equal to from, -1 if there is none
+     */
+    public int next(int from) {
+        if (words != null) {
+            return nextSetBit(words, from);
+        }
+        int pos = Arrays.binarySearch(indices, from);
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        return pos < indices.length ? indices[pos] : -1;
+    }
+
+    private static int nextSetBit(long[] words, int from) {
+        int w = from >>> 6;
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexSet)) {
+            return false;
+        }
+        IndexSet other = (IndexSet) o;
+        return this.cardinality == other.cardinality && this.isSubsetOf(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && cardinality > 0) {
+            h = Arrays.hashCode(this.toArray());
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+}
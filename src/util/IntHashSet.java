@@ -0,0 +1,188 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Set of non-negative ints with open addressing and linear probing, i.e. without boxing each element
+ * The table stores each element incremented by one, so that 0 marks an empty slot.
+ *
+ * @author Lars Bengel
+ */
+public final class IntHashSet {
+
+    /** the slots of the table, its length is a power of two */
+    private int[] table;
+    /** number of elements in the set */
+    private int size;
+
+    /**
+     * initialize the empty set
+     */
+    public IntHashSet() {
+        this.table = new int[8];
+        this.size = 0;
+    }
+
+    /**
+     * initialize the set with the elements of the given set
+     * @param other some set
+     */
+    public IntHashSet(IntHashSet other) {
+        this.table = other.table.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * @param value some non-negative int
+     * @return true if the value was not contained in the set before
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        if (2 * (this.size + 1) > this.table.length) {
+            this.resize(2 * this.table.length);
+        }
+        int mask = this.table.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            if (this.table[i] == 0) {
+                this.table[i] = value + 1;
+                this.size++;
+                return true;
+            }
+            if (this.table[i] == value + 1) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @param value some int
+     * @return true if the value is contained in the set
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int mask = this.table.length - 1;
+        for (int i = mix(value) & mask; this.table[i] != 0; i = (i + 1) & mask) {
+            if (this.table[i] == value + 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value some int
+     * @return true if the value was contained in the set
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int mask = this.table.length - 1;
+        int i = mix(value) & mask;
+        while (this.table[i] != value + 1) {
+            if (this.table[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // shift back the following elements of the probe sequence, so that no lookup stops at the gap
+        for (int j = (i + 1) & mask; this.table[j] != 0; j = (j + 1) & mask) {
+            int home = mix(this.table[j] - 1) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                this.table[i] = this.table[j];
+                i = j;
+            }
+        }
+        this.table[i] = 0;
+        this.size--;
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * iterate over the elements in no particular order without copying them, i.e.
+     * for (int s = set.nextSlot(0); s >= 0; s = set.nextSlot(s + 1)) { int value = set.getSlot(s); }
+     * the set must not be modified during the iteration
+     * @param slot some slot
+     * @return the first slot from the given one on that holds an element, -1 if there is none
+     */
+    public int nextSlot(int slot) {
+        for (int i = slot; i < this.table.length; i++) {
+            if (this.table[i] != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot some slot returned by nextSlot
+     * @return the element in the given slot
+     */
+    public int getSlot(int slot) {
+        return this.table[slot] - 1;
+    }
+
+    /**
+     * @return the elements of the set in ascending order
+     */
+    public int[] toArray() {
+        int[] result = new int[this.size];
+        int j = 0;
+        for (int slot: this.table) {
+            if (slot != 0) {
+                result[j++] = slot - 1;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * copy the elements of the set into the given buffer in ascending order, e.g. to iterate over them while the set is
+     * modified without allocating a new array
+     * @param buffer some array with at least size() elements
+     * @return the number of elements, i.e. the length of the filled prefix of the buffer
+     */
+    public int toArray(int[] buffer) {
+        int j = 0;
+        for (int slot: this.table) {
+            if (slot != 0) {
+                buffer[j++] = slot - 1;
+            }
+        }
+        Arrays.sort(buffer, 0, j);
+        return j;
+    }
+
+    private void resize(int capacity) {
+        int[] old = this.table;
+        this.table = new int[capacity];
+        int mask = capacity - 1;
+        for (int slot: old) {
+            if (slot != 0) {
+                int i = mix(slot - 1) & mask;
+                while (this.table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                this.table[i] = slot;
+            }
+        }
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
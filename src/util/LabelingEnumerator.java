@@ -0,0 +1,169 @@
+package util;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+import org.tweetyproject.arg.dung.semantics.Extension;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Attack;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
+
+import java.util.*;
+
+/**
+ * Enumerates the extensions of an argumentation framework wrt. a semantics lazily with an incremental Sat4j solver
+ * The variable in(a) of the argument with id i is i+1. For admissible and complete semantics the variable out(a) is
+ * n+i+1 and is true iff some attacker of a is in. Each extension is excluded by a blocking clause over the in-variables
+ * once it has been returned, so that the next call to the solver yields a new extension.
+ * Supported semantics are CF, ADM, CO and ST.
+ *
+ * @author Lars Bengel
+ */
+public class LabelingEnumerator implements Iterator<Extension> {
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the underlying sat4j solver */
+    private final ISolver solver;
+
+    /** the next extension, null if it has not been computed yet */
+    private Extension next;
+    /** true if all extensions have been enumerated */
+    private boolean exhausted;
+
+    /**
+     * initialize the enumerator for the extensions of the given framework
+     * @param theory some argumentation framework
+     * @param semantics some semantics
+     */
+    public LabelingEnumerator(DungTheory theory, Semantics semantics) {
+        this.index = new ArgumentIndex(theory);
+        this.solver = SolverFactory.newDefault();
+        int n = this.index.size();
+
+        // attackers of each argument by id
+        List<List<Integer>> attackers = new ArrayList<>(n);
+        for (int a = 0; a < n; a++) {
+            attackers.add(new ArrayList<>());
+        }
+        for (Attack attack: theory.getAttacks()) {
+            attackers.get(this.index.getId(attack.getAttacked())).add(this.index.getId(attack.getAttacker()));
+        }
+
+        boolean useOut = semantics == Semantics.ADM || semantics == Semantics.CO;
+        this.solver.newVar(useOut ? 2 * n : n);
+        try {
+            for (int a = 0; a < n; a++) {
+                // conflict-freeness: not in(a) or not in(b) for each attacker b
+                for (int b: attackers.get(a)) {
+                    this.solver.addClause(new VecInt(a == b ? new int[]{-(a + 1)} : new int[]{-(a + 1), -(b + 1)}));
+                }
+                switch (semantics) {
+                    case CF:
+                        break;
+                    case ST: {
+                        // in(a) or some attacker is in
+                        int[] clause = new int[attackers.get(a).size() + 1];
+                        clause[0] = a + 1;
+                        int i = 1;
+                        for (int b: attackers.get(a)) {
+                            clause[i++] = b + 1;
+                        }
+                        this.solver.addClause(new VecInt(clause));
+                        break;
+                    }
+                    case ADM:
+                    case CO: {
+                        // out(a) iff some attacker is in
+                        int[] clause = new int[attackers.get(a).size() + 1];
+                        clause[0] = -(n + a + 1);
+                        int i = 1;
+                        for (int b: attackers.get(a)) {
+                            clause[i++] = b + 1;
+                            this.solver.addClause(new VecInt(new int[]{-(b + 1), n + a + 1}));
+                        }
+                        this.solver.addClause(new VecInt(clause));
+                        // in(a) implies out(b) for each attacker b
+                        for (int b: attackers.get(a)) {
+                            this.solver.addClause(new VecInt(new int[]{-(a + 1), n + b + 1}));
+                        }
+                        if (semantics == Semantics.CO) {
+                            // in(a) if all attackers are out
+                            int[] defended = new int[attackers.get(a).size() + 1];
+                            defended[0] = a + 1;
+                            int j = 1;
+                            for (int b: attackers.get(a)) {
+                                defended[j++] = -(n + b + 1);
+                            }
+                            this.solver.addClause(new VecInt(defended));
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unsupported semantics: " + semantics);
+                }
+            }
+        } catch (ContradictionException e) {
+            this.exhausted = true;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null && !this.exhausted) {
+            this.next = this.computeNext();
+            if (this.next == null) {
+                this.exhausted = true;
+            }
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public Extension next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Extension result = this.next;
+        this.next = null;
+        return result;
+    }
+
+    /**
+     * compute a new extension and block it for all further calls
+     * @return the new extension, null if there is none
+     */
+    private Extension computeNext() {
+        try {
+            if (!this.solver.isSatisfiable()) {
+                return null;
+            }
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Sat4j timed out", e);
+        }
+        int n = this.index.size();
+        int[] model = this.solver.model();
+        Extension ext = new Extension();
+        int[] blocking = new int[n];
+        for (int literal: model) {
+            int var = Math.abs(literal);
+            if (var > n) {
+                continue;
+            }
+            if (literal > 0) {
+                ext.add(this.index.getArgument(var - 1));
+            }
+            blocking[var - 1] = -literal;
+        }
+        try {
+            this.solver.addClause(new VecInt(blocking));
+        } catch (ContradictionException e) {
+            // the blocking clause is empty, i.e., there are no arguments and the only extension has been found
+            this.exhausted = true;
+        }
+        return ext;
+    }
+}
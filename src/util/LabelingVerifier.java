@@ -0,0 +1,191 @@
+package util;
+
+import org.tweetyproject.arg.dung.semantics.ArgumentStatus;
+import org.tweetyproject.arg.dung.semantics.Semantics;
+import org.tweetyproject.arg.dung.syntax.Argument;
+import org.tweetyproject.arg.dung.syntax.Attack;
+import org.tweetyproject.arg.dung.syntax.DungTheory;
+import syntax.ArgumentIndex;
+import syntax.Input;
+import syntax.LabelingMatrix;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Verifies input labelings against a fixed argumentation framework
+ * A labeling is checked with a single pass over the attackers of each argument, using the conditions of the
+ * labeling-based semantics:
+ * CF: IN and UNDEC arguments have no IN attacker, OUT arguments have some IN attacker
+ * ADM: additionally, all attackers of IN arguments are OUT
+ * CO: additionally, UNDEC arguments have some UNDEC attacker
+ * ST: as CF, but no argument is UNDEC
+ *
+ * @author Lars Bengel
+ */
+public class LabelingVerifier {
+
+    /** the index of all arguments */
+    private final ArgumentIndex index;
+    /** the ids of the attackers of each argument, by id */
+    private final int[][] attackers;
+
+    /**
+     * initialize the verifier for the given framework
+     * @param theory some argumentation framework
+     */
+    public LabelingVerifier(DungTheory theory) {
+        this.index = new ArgumentIndex(theory);
+        int n = this.index.size();
+        int[] numAttackers = new int[n];
+        for (Attack attack: theory.getAttacks()) {
+            numAttackers[this.index.getId(attack.getAttacked())]++;
+        }
+        this.attackers = new int[n][];
+        for (int a = 0; a < n; a++) {
+            this.attackers[a] = new int[numAttackers[a]];
+        }
+        for (Attack attack: theory.getAttacks()) {
+            int a = this.index.getId(attack.getAttacked());
+            this.attackers[a][--numAttackers[a]] = this.index.getId(attack.getAttacker());
+        }
+    }
+
+    /**
+     * verify all given labelings in parallel
+     * @param inputs some labelings
+     * @return the violation of the first labeling (in iteration order) that is not valid, null if all are valid
+     */
+    public Violation findViolation(Collection<Input> inputs) {
+        List<Input> list = new ArrayList<>(inputs);
+        return IntStream.range(0, list.size()).parallel()
+                .mapToObj(i -> this.verify(list.get(i)))
+                .filter(Objects::nonNull)
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * verify all labelings of the given matrix in parallel, the rows are read directly
+     * @param matrix some labelings
+     * @return the violation of the first labeling (in row order) that is not valid, null if all are valid
+     */
+    public Violation findViolation(LabelingMatrix matrix) {
+        return IntStream.range(0, matrix.size()).parallel()
+                .mapToObj(r -> this.verify(matrix, r))
+                .filter(Objects::nonNull)
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * verify whether the given labeling is valid wrt. its semantics in the framework
+     * @param input some labeling
+     * @return the first violated condition, null if the labeling is valid
+     */
+    public Violation verify(Input input) {
+        return this.verify(input.getStatuses(this.index), input.getSemantics(), () -> input);
+    }
+
+    /**
+     * verify whether the labeling in the given row is valid wrt. its semantics in the framework
+     * the labeling is only created if it is not valid
+     * @param matrix some labelings
+     * @param row some row
+     * @return the first violated condition, null if the labeling is valid
+     */
+    public Violation verify(LabelingMatrix matrix, int row) {
+        return this.verify(matrix.getRow(row, this.index), matrix.getSemantics(row), () -> matrix.getInput(row));
+    }
+
+    /**
+     * @param statuses the status of each argument by id
+     * @param semantics the semantics of the labeling
+     * @param input creates the labeling for the violation
+     * @return the first violated condition, null if the labeling is valid
+     */
+    private Violation verify(ArgumentStatus[] statuses, Semantics semantics, Supplier<Input> input) {
+        if (semantics != Semantics.CF && semantics != Semantics.ADM && semantics != Semantics.CO && semantics != Semantics.ST) {
+            throw new IllegalArgumentException("Unsupported semantics: " + semantics);
+        }
+        boolean admissible = semantics == Semantics.ADM || semantics == Semantics.CO;
+        for (int a = 0; a < statuses.length; a++) {
+            ArgumentStatus status = statuses[a];
+            if (status == null) {
+                return new Violation(input.get(), this.index.getArgument(a), null, "argument is not labeled");
+            }
+            boolean hasInAttacker = false;
+            boolean hasUndecAttacker = false;
+            for (int b: this.attackers[a]) {
+                ArgumentStatus attackerStatus = statuses[b];
+                if (attackerStatus == ArgumentStatus.IN) {
+                    hasInAttacker = true;
+                    if (status != ArgumentStatus.OUT) {
+                        return this.violation(input, b, a, status + " argument is attacked by an IN argument");
+                    }
+                } else if (attackerStatus == ArgumentStatus.UNDECIDED) {
+                    hasUndecAttacker = true;
+                }
+                if (admissible && status == ArgumentStatus.IN && attackerStatus != ArgumentStatus.OUT) {
+                    return this.violation(input, b, a, "IN argument is attacked by an " + attackerStatus + " argument");
+                }
+            }
+            if (status == ArgumentStatus.OUT && !hasInAttacker) {
+                return new Violation(input.get(), this.index.getArgument(a), null, "OUT argument has no IN attacker");
+            }
+            if (status == ArgumentStatus.UNDECIDED && semantics == Semantics.ST) {
+                return new Violation(input.get(), this.index.getArgument(a), null, "argument is UNDEC in a stable labeling");
+            }
+            if (status == ArgumentStatus.UNDECIDED && semantics == Semantics.CO && !hasUndecAttacker) {
+                return new Violation(input.get(), this.index.getArgument(a), null, "UNDEC argument has no UNDEC attacker");
+            }
+        }
+        return null;
+    }
+
+    private Violation violation(Supplier<Input> input, int attacker, int attacked, String reason) {
+        Argument arg = this.index.getArgument(attacked);
+        return new Violation(input.get(), arg, new Attack(this.index.getArgument(attacker), arg), reason);
+    }
+
+    /**
+     * a condition of the semantics that is violated by some labeling
+     */
+    public static class Violation {
+        /** the labeling */
+        private final Input input;
+        /** the argument whose label is not valid */
+        private final Argument argument;
+        /** the attack that violates the condition, null if the condition requires an attack that does not exist */
+        private final Attack attack;
+        /** description of the violated condition */
+        private final String reason;
+
+        private Violation(Input input, Argument argument, Attack attack, String reason) {
+            this.input = input;
+            this.argument = argument;
+            this.attack = attack;
+            this.reason = reason;
+        }
+
+        public Input getInput() {
+            return this.input;
+        }
+
+        public Argument getArgument() {
+            return this.argument;
+        }
+
+        public Attack getAttack() {
+            return this.attack;
+        }
+
+        public String getReason() {
+            return this.reason;
+        }
+
+        @Override
+        public String toString() {
+            return this.input + " violated at " + (this.attack != null ? this.attack : this.argument) + ": " + this.reason;
+        }
+    }
+}
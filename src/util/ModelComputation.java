@@ -4,8 +4,8 @@ package util;
 import org.tweetyproject.logics.pl.semantics.PossibleWorld;
 import org.tweetyproject.logics.pl.syntax.*;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.math.BigInteger;
+import java.util.*;
 
 /**
  * Helper class providing methods for more efficient computation of models for specific formulae
@@ -82,4 +82,465 @@ public class ModelComputation {
             throw new IllegalArgumentException("Not possible");
         }
     }
+
+    /**
+     * compute a model of a set of clauses in linear time
+     * the forbidden variables must be false and each clause is a disjunction of positive literals given by its variables,
+     * so it suffices to set every non-forbidden variable of each clause to true and check that no clause becomes empty
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses
+     * @return the variables that are true in the model, null if the clauses are unsatisfiable
+     */
+    public static BitSet getWitnessOfClauses(BitSet forbidden, Collection<BitSet> clauses) {
+        BitSet witness = new BitSet();
+        for (BitSet clause: clauses) {
+            BitSet allowed = (BitSet) clause.clone();
+            allowed.andNot(forbidden);
+            if (allowed.isEmpty()) {
+                return null;
+            }
+            witness.or(allowed);
+        }
+        return witness;
+    }
+
+    /**
+     * compute a model of a set of clauses with as few true variables as possible
+     * the non-forbidden variables of a model form a hitting set of the clauses, so we compute a minimum hitting set via
+     * branch-and-bound for each independent component of the clauses
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses
+     * @return the variables that are true in a minimum model, null if the clauses are unsatisfiable
+     */
+    public static BitSet getMinimalWitnessOfClauses(BitSet forbidden, Collection<BitSet> clauses) {
+        List<BitSet> reduced = ModelComputation.reduceClauses(forbidden, clauses);
+        if (reduced == null) {
+            return null;
+        }
+        // every set of all variables occurring in the clauses is a hitting set, so this bound is never reached
+        return ModelComputation.getMinimumHittingSet(reduced, Integer.MAX_VALUE);
+    }
+
+    /**
+     * compute a model of a set of clauses with as many true variables as possible, i.e. all non-forbidden variables
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses
+     * @param numVariables the number of variables
+     * @return the variables that are true in the maximum model, null if the clauses are unsatisfiable
+     */
+    public static BitSet getMaximalWitnessOfClauses(BitSet forbidden, Collection<BitSet> clauses, int numVariables) {
+        if (ModelComputation.getConflictOfClauses(forbidden, clauses) != null) {
+            return null;
+        }
+        BitSet witness = new BitSet(numVariables);
+        witness.set(0, numVariables);
+        witness.andNot(forbidden);
+        return witness;
+    }
+
+    /**
+     * compute a certificate for the unsatisfiability of a set of clauses in linear time
+     * the clauses are unsatisfiable iff some clause only contains forbidden variables
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses
+     * @return a clause that only contains forbidden variables, null if the clauses are satisfiable
+     */
+    public static BitSet getConflictOfClauses(BitSet forbidden, Collection<BitSet> clauses) {
+        for (BitSet clause: clauses) {
+            BitSet allowed = (BitSet) clause.clone();
+            allowed.andNot(forbidden);
+            if (allowed.isEmpty()) {
+                return clause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * count the models of a set of clauses over the variables [0, numVariables)
+     * the forbidden variables must be false and each clause is a disjunction of positive literals given by its variables
+     * thus, each model is a set of non-forbidden variables hitting every clause. The clauses are split into independent
+     * components, which are counted separately, and every variable not occurring in any clause doubles the count
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses
+     * @param numVariables the number of variables
+     * @return the exact number of models
+     */
+    public static BigInteger countModelsOfClauses(BitSet forbidden, Collection<BitSet> clauses, int numVariables) {
+        List<BitSet> reduced = ModelComputation.reduceClauses(forbidden, clauses);
+        if (reduced == null) {
+            return BigInteger.ZERO;
+        }
+        return ModelComputation.countModels(ModelComputation.removeSubsumedClauses(reduced), numVariables - forbidden.get(0, numVariables).cardinality());
+    }
+
+    /**
+     * compute the binary logarithm of a non-negative number
+     * @param value some number
+     * @return log2 of value, negative infinity for zero
+     */
+    public static double log2(BigInteger value) {
+        if (value.signum() == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        // only the 63 most significant bits are relevant for the precision of a double
+        int shift = Math.max(0, value.bitLength() - 63);
+        return shift + Math.log(value.shiftRight(shift).doubleValue()) / Math.log(2);
+    }
+
+    /**
+     * remove all forbidden variables from the clauses
+     * @return the reduced clauses, null if some clause becomes empty
+     */
+    private static List<BitSet> reduceClauses(BitSet forbidden, Collection<BitSet> clauses) {
+        List<BitSet> reduced = new ArrayList<>(clauses.size());
+        for (BitSet clause: clauses) {
+            BitSet allowed = (BitSet) clause.clone();
+            allowed.andNot(forbidden);
+            if (allowed.isEmpty()) {
+                return null;
+            }
+            reduced.add(allowed);
+        }
+        return reduced;
+    }
+
+    /**
+     * remove every clause that is a superset of another clause, i.e. that is satisfied whenever the other one is
+     * @param clauses some clauses
+     * @return the clauses without the subsumed ones
+     */
+    private static List<BitSet> removeSubsumedClauses(List<BitSet> clauses) {
+        List<BitSet> sorted = new ArrayList<>(clauses);
+        sorted.sort(Comparator.comparingInt(BitSet::cardinality));
+        List<BitSet> minimal = new ArrayList<>();
+        for (BitSet clause: sorted) {
+            boolean subsumed = false;
+            for (BitSet other: minimal) {
+                BitSet rest = (BitSet) other.clone();
+                rest.andNot(clause);
+                if (rest.isEmpty()) {
+                    subsumed = true;
+                    break;
+                }
+            }
+            if (!subsumed) {
+                minimal.add(clause);
+            }
+        }
+        return minimal;
+    }
+
+    /**
+     * count the models of non-empty positive clauses
+     * @param clauses some non-empty positive clauses
+     * @param numFree the number of unassigned variables, including all variables occurring in the clauses
+     * @return the number of models
+     */
+    private static BigInteger countModels(List<BitSet> clauses, int numFree) {
+        BitSet occurring = new BitSet();
+        for (BitSet clause: clauses) {
+            occurring.or(clause);
+        }
+        // variables that do not occur in any clause can be chosen freely
+        BigInteger count = BigInteger.ONE.shiftLeft(numFree - occurring.cardinality());
+        for (List<BitSet> component: ModelComputation.getComponents(clauses)) {
+            count = count.multiply(ModelComputation.countModelsOfComponent(component));
+            if (count.signum() == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * split the clauses into components such that clauses of different components share no variables
+     * @param clauses some clauses
+     * @return the components
+     */
+    private static Collection<List<BitSet>> getComponents(List<BitSet> clauses) {
+        Collection<List<BitSet>> components = new ArrayList<>();
+        List<BitSet> remaining = new LinkedList<>(clauses);
+        while (!remaining.isEmpty()) {
+            BitSet first = remaining.remove(0);
+            List<BitSet> component = new ArrayList<>();
+            component.add(first);
+            BitSet variables = (BitSet) first.clone();
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                Iterator<BitSet> it = remaining.iterator();
+                while (it.hasNext()) {
+                    BitSet clause = it.next();
+                    if (clause.intersects(variables)) {
+                        variables.or(clause);
+                        component.add(clause);
+                        it.remove();
+                        changed = true;
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    /**
+     * compute a hitting set by repeatedly choosing the variable that occurs in the most remaining clauses
+     * @param clauses some non-empty positive clauses
+     * @return a hitting set of the clauses
+     */
+    private static BitSet getGreedyHittingSet(List<BitSet> clauses) {
+        BitSet hittingSet = new BitSet();
+        List<BitSet> remaining = new ArrayList<>(clauses);
+        while (!remaining.isEmpty()) {
+            int v = ModelComputation.getMostFrequentVariable(remaining);
+            hittingSet.set(v);
+            remaining.removeIf(clause -> clause.get(v));
+        }
+        return hittingSet;
+    }
+
+    /**
+     * @param clauses some non-empty clauses
+     * @return the variable occurring in the most clauses
+     */
+    private static int getMostFrequentVariable(List<BitSet> clauses) {
+        int length = 0;
+        for (BitSet clause: clauses) {
+            length = Math.max(length, clause.length());
+        }
+        int[] occurrences = new int[length];
+        int v = -1;
+        for (BitSet clause: clauses) {
+            for (int b = clause.nextSetBit(0); b >= 0; b = clause.nextSetBit(b + 1)) {
+                if (++occurrences[b] > (v < 0 ? 0 : occurrences[v])) {
+                    v = b;
+                }
+            }
+        }
+        return v;
+    }
+
+    /**
+     * compute a lower bound for the size of a hitting set, i.e. the size of a set of pairwise disjoint clauses
+     * @param clauses some non-empty clauses sorted by size
+     * @return a lower bound for the size of any hitting set of the clauses
+     */
+    private static int getHittingSetLowerBound(List<BitSet> clauses) {
+        BitSet used = new BitSet();
+        int bound = 0;
+        for (BitSet clause: clauses) {
+            if (!clause.intersects(used)) {
+                used.or(clause);
+                bound++;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * branch-and-bound search for a minimum hitting set of non-empty clauses
+     * 1. variables of unit clauses are part of every hitting set, a variable occurring in all clauses is the only one needed
+     * 2. independent components of the clauses are solved separately
+     * 3. otherwise, we branch over the variables of a smallest clause, most frequent variable first. The i-th branch
+     * chooses the i-th variable and excludes all previous ones, so that no hitting set is visited twice. A branch is
+     * cut off if its lower bound, the number of pairwise disjoint clauses, can not improve on the best hitting set so far
+     * @param clauses some non-empty clauses
+     * @param bound only hitting sets with less than bound variables are of interest
+     * @return a minimum hitting set, null if there is none with less than bound variables
+     */
+    private static BitSet getMinimumHittingSet(List<BitSet> clauses, int bound) {
+        BitSet forced = new BitSet();
+        List<BitSet> remaining = clauses;
+        boolean propagate = true;
+        while (propagate) {
+            propagate = false;
+            for (BitSet clause: remaining) {
+                if (clause.cardinality() == 1) {
+                    forced.or(clause);
+                    propagate = true;
+                }
+            }
+            if (propagate) {
+                List<BitSet> unhit = new ArrayList<>();
+                for (BitSet clause: remaining) {
+                    if (!clause.intersects(forced)) {
+                        unhit.add(clause);
+                    }
+                }
+                remaining = unhit;
+            }
+        }
+        if (forced.cardinality() >= bound) {
+            return null;
+        }
+        if (remaining.isEmpty()) {
+            return forced;
+        }
+        int localBound = bound - forced.cardinality();
+        if (localBound == 1) {
+            return null;
+        }
+        // a variable occurring in all clauses is a minimum hitting set on its own
+        BitSet common = (BitSet) remaining.get(0).clone();
+        for (BitSet clause: remaining) {
+            common.and(clause);
+        }
+        if (!common.isEmpty()) {
+            forced.set(common.nextSetBit(0));
+            return forced;
+        }
+        if (localBound == 2) {
+            return null;
+        }
+        remaining = ModelComputation.removeSubsumedClauses(remaining);
+
+        Collection<List<BitSet>> components = ModelComputation.getComponents(remaining);
+        if (components.size() > 1) {
+            List<Integer> lowerBounds = new ArrayList<>();
+            int lowerBound = 0;
+            for (List<BitSet> component: components) {
+                component.sort(Comparator.comparingInt(BitSet::cardinality));
+                lowerBounds.add(ModelComputation.getHittingSetLowerBound(component));
+                lowerBound += lowerBounds.get(lowerBounds.size() - 1);
+            }
+            if (lowerBound >= localBound) {
+                return null;
+            }
+            BitSet result = (BitSet) forced.clone();
+            int i = 0;
+            for (List<BitSet> component: components) {
+                lowerBound -= lowerBounds.get(i++);
+                // the other components need at least lowerBound more variables
+                BitSet hittingSet = ModelComputation.getMinimumHittingSet(component, bound - result.cardinality() - lowerBound);
+                if (hittingSet == null) {
+                    return null;
+                }
+                result.or(hittingSet);
+            }
+            return result;
+        }
+
+        int lowerBound = ModelComputation.getHittingSetLowerBound(remaining);
+        if (lowerBound >= localBound) {
+            return null;
+        }
+        BitSet best = null;
+        BitSet greedy = ModelComputation.getGreedyHittingSet(remaining);
+        if (greedy.cardinality() < localBound) {
+            best = greedy;
+            localBound = greedy.cardinality();
+        }
+
+        // order the variables of the smallest clause by their number of occurrences
+        BitSet branchClause = remaining.get(0);
+        Map<Integer, Integer> occurrences = new HashMap<>();
+        for (BitSet clause: remaining) {
+            for (int b = clause.nextSetBit(0); b >= 0; b = clause.nextSetBit(b + 1)) {
+                if (branchClause.get(b)) {
+                    occurrences.merge(b, 1, Integer::sum);
+                }
+            }
+        }
+        List<Integer> variables = new ArrayList<>(occurrences.keySet());
+        variables.sort((v1, v2) -> occurrences.get(v2) - occurrences.get(v1));
+
+        BitSet excluded = new BitSet();
+        for (int v: variables) {
+            if (lowerBound >= localBound) {
+                // the best hitting set is already optimal
+                break;
+            }
+            List<BitSet> unhit = new ArrayList<>();
+            boolean conflict = false;
+            for (BitSet clause: remaining) {
+                if (clause.get(v)) {
+                    continue;
+                }
+                BitSet rest = clause;
+                if (clause.intersects(excluded)) {
+                    rest = (BitSet) clause.clone();
+                    rest.andNot(excluded);
+                    if (rest.isEmpty()) {
+                        conflict = true;
+                        break;
+                    }
+                }
+                unhit.add(rest);
+            }
+            excluded.set(v);
+            if (conflict) {
+                continue;
+            }
+            BitSet hittingSet = ModelComputation.getMinimumHittingSet(unhit, localBound - 1);
+            if (hittingSet != null) {
+                hittingSet.set(v);
+                best = hittingSet;
+                localBound = hittingSet.cardinality();
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.or(forced);
+        return best;
+    }
+
+    /**
+     * count the models of connected non-empty positive clauses over the variables occurring in them
+     * unit clauses are propagated, otherwise we branch on the variable occurring in the most clauses
+     * @param clauses some connected non-empty positive clauses
+     * @return the number of models
+     */
+    private static BigInteger countModelsOfComponent(List<BitSet> clauses) {
+        BitSet occurring = new BitSet();
+        for (BitSet clause: clauses) {
+            occurring.or(clause);
+        }
+        int numVariables = occurring.cardinality();
+        if (clauses.size() == 1) {
+            // every non-empty subset of the clause is a model
+            return BigInteger.ONE.shiftLeft(numVariables).subtract(BigInteger.ONE);
+        }
+        int v = -1;
+        for (BitSet clause: clauses) {
+            if (clause.cardinality() == 1) {
+                v = clause.nextSetBit(0);
+                break;
+            }
+        }
+        boolean forced = v >= 0;
+        if (!forced) {
+            int[] occurrences = new int[occurring.length()];
+            for (BitSet clause: clauses) {
+                for (int b = clause.nextSetBit(0); b >= 0; b = clause.nextSetBit(b + 1)) {
+                    if (++occurrences[b] > (v < 0 ? 0 : occurrences[v])) {
+                        v = b;
+                    }
+                }
+            }
+        }
+        // if v is true all clauses containing v are satisfied, otherwise v is removed from them
+        List<BitSet> satisfied = new ArrayList<>();
+        List<BitSet> reduced = new ArrayList<>();
+        boolean conflict = false;
+        for (BitSet clause: clauses) {
+            if (!clause.get(v)) {
+                satisfied.add(clause);
+                reduced.add(clause);
+            } else if (clause.cardinality() == 1) {
+                conflict = true;
+            } else {
+                BitSet rest = (BitSet) clause.clone();
+                rest.clear(v);
+                reduced.add(rest);
+            }
+        }
+        BigInteger count = ModelComputation.countModels(satisfied, numVariables - 1);
+        if (!conflict && !forced) {
+            count = count.add(ModelComputation.countModels(ModelComputation.removeSubsumedClauses(reduced), numVariables - 1));
+        }
+        return count;
+    }
 }
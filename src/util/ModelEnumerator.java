@@ -0,0 +1,213 @@
+package util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Resettable enumerator over all models of a set of positive clauses over the variables [0, numVariables)
+ * The forbidden variables are false in every model and the variables that are neither forbidden nor occur in a clause
+ * are optional, i.e. every subset of them is combined with every model of the clauses.
+ * The models of the clauses are enumerated by backtracking over the variables of the clauses in ascending order, false
+ * before true. A clause is checked when its last variable is set to false. Setting all remaining variables to true
+ * satisfies every positive clause, so each branch that is not cut off contains a model and the enumerator never runs
+ * into a dead end. Only the current assignment is stored, so the memory does not depend on the number of models.
+ *
+ * @author Lars Bengel
+ */
+public class ModelEnumerator {
+
+    /** the variables that occur in some clause and are not forbidden, in ascending order */
+    private final int[] variables;
+    /** the clauses whose last variable is at the given position, each by the positions of its variables */
+    private final int[][][] clausesEndingAt;
+    /** the optional variables */
+    private final int[] optional;
+    /** true if some clause only contains forbidden variables */
+    private final boolean unsatisfiable;
+
+    /** the current value of each variable of the clauses, by position */
+    private final boolean[] values;
+    /** the current value of each optional variable, by position */
+    private final boolean[] optionalValues;
+    /** the current model, i.e. the set of variables that are true */
+    private final BitSet model;
+    /** true once the first model has been requested */
+    private boolean started;
+    /** true once all models have been enumerated */
+    private boolean exhausted;
+
+    /**
+     * initialize the enumerator, the first call of next yields the first model
+     * @param forbidden the variables that must be false
+     * @param clauses some positive clauses, given by their variables
+     * @param numVariables the number of variables
+     */
+    public ModelEnumerator(BitSet forbidden, Collection<BitSet> clauses, int numVariables) {
+        BitSet allowed = new BitSet(numVariables);
+        allowed.set(0, numVariables);
+        allowed.andNot(forbidden);
+        BitSet occurring = new BitSet(numVariables);
+        boolean unsatisfiable = false;
+        for (BitSet clause: clauses) {
+            occurring.or(clause);
+            if (!clause.intersects(allowed)) {
+                unsatisfiable = true;
+            }
+        }
+        occurring.and(allowed);
+        this.variables = occurring.stream().toArray();
+        BitSet optional = (BitSet) allowed.clone();
+        optional.andNot(occurring);
+        this.optional = optional.stream().toArray();
+        this.unsatisfiable = unsatisfiable;
+
+        int[] positions = new int[numVariables];
+        for (int i = 0; i < this.variables.length; i++) {
+            positions[this.variables[i]] = i;
+        }
+        int[] counts = new int[this.variables.length];
+        int[][] reduced = new int[clauses.size()][];
+        int c = 0;
+        for (BitSet clause: clauses) {
+            BitSet reducedClause = (BitSet) clause.clone();
+            reducedClause.and(allowed);
+            int[] clausePositions = reducedClause.stream().map(v -> positions[v]).toArray();
+            reduced[c++] = clausePositions;
+            if (clausePositions.length > 0) {
+                counts[clausePositions[clausePositions.length - 1]]++;
+            }
+        }
+        this.clausesEndingAt = new int[this.variables.length][][];
+        for (int i = 0; i < counts.length; i++) {
+            this.clausesEndingAt[i] = new int[counts[i]][];
+            counts[i] = 0;
+        }
+        for (int[] clausePositions: reduced) {
+            if (clausePositions.length > 0) {
+                int last = clausePositions[clausePositions.length - 1];
+                this.clausesEndingAt[last][counts[last]++] = clausePositions;
+            }
+        }
+
+        this.values = new boolean[this.variables.length];
+        this.optionalValues = new boolean[this.optional.length];
+        this.model = new BitSet(numVariables);
+    }
+
+    /**
+     * copy the given enumerator including its current model, the clauses are shared
+     * @param other some enumerator
+     */
+    private ModelEnumerator(ModelEnumerator other) {
+        this.variables = other.variables;
+        this.clausesEndingAt = other.clausesEndingAt;
+        this.optional = other.optional;
+        this.unsatisfiable = other.unsatisfiable;
+        this.values = other.values.clone();
+        this.optionalValues = other.optionalValues.clone();
+        this.model = (BitSet) other.model.clone();
+        this.started = other.started;
+        this.exhausted = other.exhausted;
+    }
+
+    /**
+     * @return an independent enumerator at the same model as this one
+     */
+    public ModelEnumerator copy() {
+        return new ModelEnumerator(this);
+    }
+
+    /**
+     * restart the enumeration, the next call of next yields the first model again
+     */
+    public void reset() {
+        this.started = false;
+        this.exhausted = false;
+    }
+
+    /**
+     * advance to the next model, the optional variables change fastest
+     * @return true if there is a next model, false if all models have been enumerated
+     */
+    public boolean next() {
+        if (this.exhausted) {
+            return false;
+        }
+        if (!this.started) {
+            this.started = true;
+            if (this.unsatisfiable) {
+                this.exhausted = true;
+                return false;
+            }
+            this.model.clear();
+            Arrays.fill(this.optionalValues, false);
+            this.descend(0);
+            return true;
+        }
+        // count up the optional variables like a binary number
+        for (int i = 0; i < this.optional.length; i++) {
+            this.optionalValues[i] = !this.optionalValues[i];
+            this.model.set(this.optional[i], this.optionalValues[i]);
+            if (this.optionalValues[i]) {
+                return true;
+            }
+        }
+        // all subsets of the optional variables have been combined with this model of the clauses, backtrack to the
+        // last variable that is false and continue with true
+        for (int i = this.values.length - 1; i >= 0; i--) {
+            if (!this.values[i]) {
+                this.set(i, true);
+                this.descend(i + 1);
+                return true;
+            }
+        }
+        this.exhausted = true;
+        return false;
+    }
+
+    /**
+     * @return the current model, i.e. the set of variables that are true, it must not be modified
+     */
+    public BitSet getModel() {
+        return this.model;
+    }
+
+    /**
+     * assign the variables from the given position on, each is false unless that falsifies a clause
+     * @param from some position
+     */
+    private void descend(int from) {
+        for (int i = from; i < this.values.length; i++) {
+            this.set(i, false);
+            if (this.isFalsified(i)) {
+                this.set(i, true);
+            }
+        }
+    }
+
+    /**
+     * @param position position of some variable whose value has just been set to false
+     * @return true if some clause ending at the position has no true variable
+     */
+    private boolean isFalsified(int position) {
+        for (int[] clause: this.clausesEndingAt[position]) {
+            boolean satisfied = false;
+            for (int i: clause) {
+                if (this.values[i]) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void set(int position, boolean value) {
+        this.values[position] = value;
+        this.model.set(this.variables[position], value);
+    }
+}
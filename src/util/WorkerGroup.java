@@ -0,0 +1,203 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed group of worker threads that runs a task for every id of a range in parallel without allocating any memory
+ * Parallel streams create task objects for every split, so they allocate on every call. The workers of this group are
+ * started once and wait for the next run by parking. A run publishes the task and the range by incrementing a volatile
+ * generation counter, then the workers and the calling thread take chunks of ids from an atomic counter until the
+ * range is exhausted, and the last worker that finishes wakes the caller. Nothing but the counters is touched, so a run
+ * allocates nothing as long as the task does not.
+ * Runs are serialized, a run started from a worker of the group is executed sequentially by that worker.
+ *
+ * @author Lars Bengel
+ */
+public final class WorkerGroup {
+
+    /** the number of ids that are taken at once */
+    private static final int CHUNK_SIZE = 64;
+
+    /** system property for the number of threads of the common group, by default the number of processors */
+    public static final String PARALLELISM = "learning.parallelism";
+
+    /** the group shared by all learners, started on first use */
+    private static volatile WorkerGroup common;
+
+    /**
+     * task that is run for a single id
+     */
+    public interface Task {
+        /**
+         * @param id some id
+         * @return true if the task changed something for this id
+         */
+        boolean run(int id);
+    }
+
+    /** the workers, the calling thread takes part in each run as well */
+    private final Worker[] workers;
+
+    /** the generation of the current run, incremented to start a run */
+    private volatile int generation;
+    /** the task of the current run */
+    private volatile Task task;
+    /** the number of ids of the current run */
+    private volatile int size;
+    /** the thread that started the current run */
+    private volatile Thread caller;
+    /** the first failure of the current run, null if there is none */
+    private volatile Throwable failure;
+
+    /** the next id that has not been taken yet */
+    private final AtomicInteger next = new AtomicInteger();
+    /** the number of ids for which the task returned true */
+    private final AtomicInteger changed = new AtomicInteger();
+    /** the number of workers that have not finished the current run yet */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * start a group with the given number of threads, including the calling thread of each run
+     * @param parallelism the number of threads, at least one
+     */
+    public WorkerGroup(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.workers = new Worker[parallelism - 1];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Worker(this, i);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * @return the group shared by all learners, it has one thread per available processor unless the system property
+     * PARALLELISM is set when it is first used
+     */
+    public static WorkerGroup getCommon() {
+        WorkerGroup group = common;
+        if (group == null) {
+            synchronized (WorkerGroup.class) {
+                group = common;
+                if (group == null) {
+                    group = new WorkerGroup(Integer.getInteger(PARALLELISM, Runtime.getRuntime().availableProcessors()));
+                    common = group;
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * run the given task for all ids from 0 to size in parallel, each id exactly once
+     * the effects of the task are visible to the calling thread afterwards
+     * @param size the number of ids
+     * @param task some task, it is called concurrently for different ids
+     * @return the number of ids for which the task returned true
+     */
+    public int run(int size, Task task) {
+        if (this.workers.length == 0 || size <= CHUNK_SIZE || Thread.currentThread() instanceof Worker) {
+            return runSequentially(size, task);
+        }
+        synchronized (this) {
+            this.task = task;
+            this.size = size;
+            this.caller = Thread.currentThread();
+            this.failure = null;
+            this.next.set(0);
+            this.changed.set(0);
+            this.active.set(this.workers.length);
+            // the volatile write publishes all fields of the run
+            this.generation++;
+            for (Worker worker: this.workers) {
+                LockSupport.unpark(worker);
+            }
+            this.work();
+            while (this.active.get() > 0) {
+                LockSupport.park(this);
+            }
+            this.task = null;
+            this.caller = null;
+            Throwable failure = this.failure;
+            if (failure != null) {
+                this.failure = null;
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw new IllegalStateException(failure);
+            }
+            return this.changed.get();
+        }
+    }
+
+    private static int runSequentially(int size, Task task) {
+        int changed = 0;
+        for (int id = 0; id < size; id++) {
+            if (task.run(id)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * take chunks of ids and run the task for them until the range is exhausted or some thread has failed
+     */
+    private void work() {
+        Task task = this.task;
+        int size = this.size;
+        int changed = 0;
+        try {
+            for (int start = this.next.getAndAdd(CHUNK_SIZE); start < size; start = this.next.getAndAdd(CHUNK_SIZE)) {
+                int end = Math.min(size, start + CHUNK_SIZE);
+                for (int id = start; id < end; id++) {
+                    if (task.run(id)) {
+                        changed++;
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            if (this.failure == null) {
+                this.failure = t;
+            }
+            // the other threads stop after their current chunk
+            this.next.set(size);
+        }
+        this.changed.addAndGet(changed);
+    }
+
+    /**
+     * daemon thread that waits for the next generation and takes part in it
+     */
+    private static final class Worker extends Thread {
+        private final WorkerGroup group;
+
+        private Worker(WorkerGroup group, int i) {
+            super("learner-worker-" + i);
+            this.group = group;
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            // the group starts at generation 0, a run may already have started before this thread is running
+            int seen = 0;
+            while (true) {
+                while (this.group.generation == seen) {
+                    LockSupport.park(this.group);
+                }
+                seen = this.group.generation;
+                this.group.work();
+                Thread caller = this.group.caller;
+                if (this.group.active.decrementAndGet() == 0) {
+                    LockSupport.unpark(caller);
+                }
+            }
+        }
+    }
+}